@@ -0,0 +1,206 @@
+/**
+ * $Id: AnytimeKnapsack.java, v1.0 19/10/26 06:40 PM oscarfabra Exp $
+ * {@code AnytimeKnapsack} Solves an instance of the knapsack problem as well
+ * as possible within a given time.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AnytimeKnapsack is a class that solves the knapsack problem within a time
+ * limit. The greedy solution is ready as soon as the object is created; then
+ * solve refines it with the dynamic programming heuristic for smaller and
+ * smaller error margins e, as long as each run is expected to finish in
+ * time, and spends whatever time is left on branch and bound. Besides the
+ * best solution found it keeps a proven upper bound of the optimal value,
+ * from the LP relaxation, from each heuristic run (whose value is at least
+ * (1 - e) times the optimum), and from the branch and bound search.
+ * @see Knapsack#solveApproximately(ItemColumns, int, float, List)
+ * @see BranchAndBound
+ */
+public class AnytimeKnapsack
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Error margin of the first run of the dynamic programming heuristic,
+    // halved on each following run
+    public static final float FIRST_ERROR = 0.5f;
+
+    // Estimated time per value of the heuristic's row, before any run
+    public static final double INITIAL_NANOS_PER_CELL = 1.0;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Items of the instance
+    private ItemColumns items;
+
+    // Knapsack size
+    private int W;
+
+    // Number of items
+    private int n;
+
+    // Branch and bound search of the instance, which also finds the greedy
+    // solution and the bound of the LP relaxation
+    private BranchAndBound search;
+
+    // Best value found so far and its items
+    private int bestValue;
+    private List<Item> selectedItems;
+
+    // Smallest value known not to be beaten by any solution
+    private long upperBound;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new AnytimeKnapsack for the given instance of the knapsack
+     * problem, whose best solution is the greedy one; O(n log n) algorithm.
+     * The given list isn't modified.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     */
+    public AnytimeKnapsack(List<Item> items, int W, int n)
+    {
+        this(new ItemColumns(items, n), W);
+    }
+
+    /**
+     * Creates a new AnytimeKnapsack for the given instance of the knapsack
+     * problem, stored column by column; O(n log n) algorithm.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     */
+    public AnytimeKnapsack(ItemColumns items, int W)
+    {
+        this.items = items;
+        this.W = W;
+        this.n = items.size();
+        this.search = new BranchAndBound(items, W);
+        this.bestValue = this.search.getBestValue();
+        this.selectedItems = this.search.getSelectedItems();
+        this.upperBound = this.search.getUpperBound();
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Improves the best solution and the upper bound until the optimum is
+     * found or the given time runs out, whichever happens first.
+     * @param timeout Maximum time to search.
+     * @param unit Unit of the timeout.
+     * @return Best value found.
+     */
+    public int solve(long timeout, TimeUnit unit)
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        // Runs the heuristic with smaller and smaller e while the next run,
+        // of at most n x (2 * n / e) values, is expected to finish in time
+        double nanosPerCell = AnytimeKnapsack.INITIAL_NANOS_PER_CELL;
+        for(float e = AnytimeKnapsack.FIRST_ERROR; !this.isOptimal(); e /= 2)
+        {
+            double cells = 2.0 * this.n * this.n / e;
+            long start = System.nanoTime();
+            if(cells * nanosPerCell > deadline - start)
+            {
+                break;
+            }
+            List<Item> selected = new ArrayList<Item>(this.n / 2);
+            int value = Knapsack.solveApproximately(this.items, this.W, e,
+                    selected);
+            nanosPerCell = (System.nanoTime() - start) / cells;
+            this.offer(value, selected);
+
+            // Since value >= (1 - e) * optimum, the optimum is at most
+            // value / (1 - e), and if e * optimum < 1, value is the optimum
+            this.upperBound = Math.min(this.upperBound,
+                    (long) Math.floor(value / (1.0 - e) + 1e-9));
+            if(e * this.upperBound < 1)
+            {
+                this.upperBound = Math.min(this.upperBound, value);
+            }
+        }
+
+        // Spends the time left on branch and bound
+        long left = deadline - System.nanoTime();
+        if(!this.isOptimal() && left > 0)
+        {
+            this.search.solve(left, TimeUnit.NANOSECONDS);
+            this.offer(this.search.getBestValue(),
+                    this.search.getSelectedItems());
+            this.upperBound = Math.min(this.upperBound,
+                    this.search.getUpperBound());
+        }
+        return this.bestValue;
+    }
+
+    /**
+     * Gets the best value found so far.
+     * @return Best value found so far.
+     */
+    public int getBestValue()
+    {
+        return this.bestValue;
+    }
+
+    /**
+     * Gets the items of the best solution found so far.
+     * @return List of the selected items.
+     */
+    public List<Item> getSelectedItems()
+    {
+        return this.selectedItems;
+    }
+
+    /**
+     * Gets a proven upper bound of the optimal value.
+     * @return Upper bound of the optimal value.
+     */
+    public int getUpperBound()
+    {
+        return (int) Math.min(Integer.MAX_VALUE, this.upperBound);
+    }
+
+    /**
+     * Determines whether the best value found is known to be optimal.
+     * @return true if the best value is optimal, false otherwise.
+     */
+    public boolean isOptimal()
+    {
+        return this.upperBound <= this.bestValue;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Keeps the given solution if it is better than the best one so far.
+     * @param value Value of the solution.
+     * @param selected Items of the solution.
+     */
+    private void offer(int value, List<Item> selected)
+    {
+        if(value > this.bestValue)
+        {
+            this.bestValue = value;
+            this.selectedItems = selected;
+        }
+    }
+}
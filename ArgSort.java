@@ -0,0 +1,178 @@
+/**
+ * $Id: ArgSort.java, v1.0 19/10/26 10:20 PM oscarfabra Exp $
+ * {@code ArgSort} Class that finds the permutation that sorts an array of
+ * numbers, without modifying it.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * Class that finds the order of the elements of an array of int, long, float
+ * or double numbers, in increasing or decreasing order, as an array with the
+ * index of each element in order, so that any arrays or lists parallel to
+ * the keys can be reordered after. The keys are copied into int or long keys
+ * whose increasing order is the one wanted (bits inverted for decreasing
+ * order; float and double bits folded so that they order as Float.compare
+ * and Double.compare do, -0.0 before 0.0 and NaN last) and sorted by radix
+ * sort along with the indices, so equal keys keep their order. No state is
+ * kept between calls, so it can be used by many threads at once, and each
+ * call allocates the permutation, the copy of the keys and the buffers of
+ * the radix sort only.
+ * @see RadixSort
+ */
+public class ArgSort
+{
+    //-------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //-------------------------------------------------------------------------
+
+    // This class should not be instantiated
+    private ArgSort(){}
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Finds the order of the given keys; O(n) algorithm.
+     * @param keys Array of int numbers, which isn't modified.
+     * @param descending Whether to order the keys decreasingly.
+     * @return Array with the index of each key in order.
+     */
+    public static int [] argsort(int[] keys, boolean descending)
+    {
+        int n = keys.length;
+        int [] sortable = new int[n];
+        for(int i = 0; i < n; i++)
+        {
+            sortable[i] = descending ? ~keys[i] : keys[i];
+        }
+        return ArgSort.order(sortable);
+    }
+
+    /**
+     * Finds the order of the given keys; O(n) algorithm.
+     * @param keys Array of long numbers, which isn't modified.
+     * @param descending Whether to order the keys decreasingly.
+     * @return Array with the index of each key in order.
+     */
+    public static int [] argsort(long[] keys, boolean descending)
+    {
+        int n = keys.length;
+        long [] sortable = new long[n];
+        for(int i = 0; i < n; i++)
+        {
+            sortable[i] = descending ? ~keys[i] : keys[i];
+        }
+        return ArgSort.order(sortable);
+    }
+
+    /**
+     * Finds the order of the given keys as Float.compare orders them; O(n)
+     * algorithm.
+     * @param keys Array of float numbers, which isn't modified.
+     * @param descending Whether to order the keys decreasingly.
+     * @return Array with the index of each key in order.
+     */
+    public static int [] argsort(float[] keys, boolean descending)
+    {
+        int n = keys.length;
+        int [] sortable = new int[n];
+        for(int i = 0; i < n; i++)
+        {
+            int key = ArgSort.sortableBits(keys[i]);
+            sortable[i] = descending ? ~key : key;
+        }
+        return ArgSort.order(sortable);
+    }
+
+    /**
+     * Finds the order of the given keys as Double.compare orders them; O(n)
+     * algorithm.
+     * @param keys Array of double numbers, which isn't modified.
+     * @param descending Whether to order the keys decreasingly.
+     * @return Array with the index of each key in order.
+     */
+    public static int [] argsort(double[] keys, boolean descending)
+    {
+        int n = keys.length;
+        long [] sortable = new long[n];
+        for(int i = 0; i < n; i++)
+        {
+            long key = ArgSort.sortableBits(keys[i]);
+            sortable[i] = descending ? ~key : key;
+        }
+        return ArgSort.order(sortable);
+    }
+
+    /**
+     * Gets an int whose order as int is the order of the given float as
+     * Float.compare sees it: the bits of the float, with every bit but the
+     * sign inverted for negative numbers, and NaN as a single value.
+     * @param x Float number.
+     * @return Int with the same order as x.
+     */
+    public static int sortableBits(float x)
+    {
+        int bits = Float.floatToIntBits(x);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets a long whose order as long is the order of the given double as
+     * Double.compare sees it: the bits of the double, with every bit but the
+     * sign inverted for negative numbers, and NaN as a single value.
+     * @param x Double number.
+     * @return Long with the same order as x.
+     */
+    public static long sortableBits(double x)
+    {
+        long bits = Double.doubleToLongBits(x);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts the given keys along with their indices.
+     * @param sortable Array of keys, which is sorted.
+     * @return Array with the index of each key in increasing order.
+     */
+    private static int [] order(int[] sortable)
+    {
+        int [] order = ArgSort.identity(sortable.length);
+        RadixSort.sort(sortable, order);
+        return order;
+    }
+
+    /**
+     * Sorts the given keys along with their indices.
+     * @param sortable Array of keys, which is sorted.
+     * @return Array with the index of each key in increasing order.
+     */
+    private static int [] order(long[] sortable)
+    {
+        int [] order = ArgSort.identity(sortable.length);
+        RadixSort.sort(sortable, order);
+        return order;
+    }
+
+    /**
+     * Creates the identity permutation of n elements.
+     * @param n Number of elements.
+     * @return Array with i at index i.
+     */
+    private static int [] identity(int n)
+    {
+        int [] order = new int[n];
+        for(int i = 0; i < n; i++)
+        {
+            order[i] = i;
+        }
+        return order;
+    }
+}
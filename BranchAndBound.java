@@ -0,0 +1,487 @@
+/**
+ * $Id: BranchAndBound.java, v1.0 19/10/26 04:10 PM oscarfabra Exp $
+ * {@code BranchAndBound} Solves an instance of the knapsack problem exactly
+ * by branch and bound.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BranchAndBound is a class that solves the knapsack problem exactly by
+ * branch and bound, without any table of size W. Items are explored in
+ * decreasing order of their value/weight ratios (ItemColumns.ratioOrder), and
+ * a branch is pruned when the value of the fractional (LP relaxation)
+ * solution of its remaining items can't beat the best solution found so far.
+ * The search is depth-first, which finds good solutions early with little
+ * memory; if it takes more than DFS_MAX_NODES nodes, the search restarts
+ * best-first from the best solution found, which expands the fewest nodes.
+ * Its running time depends on n and on how tight the bounds are, not on W.
+ * The search can also be given a time limit, after which it stops with the
+ * best solution found so far and a proven upper bound of the optimum.
+ * @see Knapsack
+ * @see ItemColumns#ratioOrder()
+ */
+public class BranchAndBound
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Number of nodes to explore depth-first before switching to best-first
+    public static final int DFS_MAX_NODES = 1000000;
+
+    // Number of nodes explored between two checks of the time limit, minus 1
+    public static final int DEADLINE_CHECK_MASK = 1023;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Items of the instance
+    private ItemColumns items;
+
+    // Index of each item that fits in the knapsack, in decreasing order of
+    // value/weight
+    private int [] order;
+
+    // Number of items that fit in the knapsack
+    private int n;
+
+    // Knapsack size
+    private int W;
+
+    // Values and weights of the sorted items
+    private int [] values;
+    private int [] weights;
+
+    // Sums of the values and weights of the first i sorted items
+    private long [] prefixValues;
+    private long [] prefixWeights;
+
+    // Best value found so far and whether each sorted item is in it
+    private int bestValue;
+    private boolean [] bestTaken;
+
+    // Decisions of the current depth-first branch
+    private boolean [] taken;
+
+    // Number of nodes explored so far
+    private long nodes;
+
+    // Smallest value known not to be beaten by any solution
+    private long upperBound;
+
+    // Time (as given by System.nanoTime) at which to stop, if timed
+    private boolean timed;
+    private long deadline;
+
+    // Whether the search stopped because of the time limit
+    private boolean expired;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new BranchAndBound for the given instance of the knapsack
+     * problem. The given list isn't modified.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     */
+    public BranchAndBound(List<Item> items, int W, int n)
+    {
+        this(new ItemColumns(items, n), W);
+    }
+
+    /**
+     * Creates a new BranchAndBound for the given instance of the knapsack
+     * problem, stored column by column.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     */
+    public BranchAndBound(ItemColumns items, int W)
+    {
+        // Keeps the items that fit, sorted by bang per buck
+        this.items = items;
+        this.W = W;
+        int [] sorted = items.ratioOrder();
+        this.order = new int[sorted.length];
+        for(int i : sorted)
+        {
+            if(items.getWeight(i) <= W)
+            {
+                this.order[this.n++] = i;
+            }
+        }
+
+        this.values = new int[this.n];
+        this.weights = new int[this.n];
+        this.prefixValues = new long[this.n + 1];
+        this.prefixWeights = new long[this.n + 1];
+        for(int i = 0; i < this.n; i++)
+        {
+            this.values[i] = items.getValue(this.order[i]);
+            this.weights[i] = items.getWeight(this.order[i]);
+            this.prefixValues[i + 1] = this.prefixValues[i] + this.values[i];
+            this.prefixWeights[i + 1] = this.prefixWeights[i] + this.weights[i];
+        }
+        this.bestTaken = new boolean[this.n];
+        this.taken = new boolean[this.n];
+
+        // Starts from the greedy solution and the bound of the LP relaxation
+        this.bestValue = this.findGreedy(this.bestTaken);
+        this.upperBound = Math.max(this.bestValue, this.bound(0, 0, 0));
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Solves the instance exactly.
+     * @return Value of the optimal solution.
+     */
+    public int solve()
+    {
+        this.timed = false;
+        return this.search();
+    }
+
+    /**
+     * Searches for the optimal solution until it is found or the given time
+     * runs out, whichever happens first. If time runs out, the best solution
+     * found so far is kept and getUpperBound() tells how far it can be from
+     * the optimum.
+     * @param timeout Maximum time to search.
+     * @param unit Unit of the timeout.
+     * @return Best value found.
+     */
+    public int solve(long timeout, TimeUnit unit)
+    {
+        this.timed = true;
+        this.deadline = System.nanoTime() + unit.toNanos(timeout);
+        return this.search();
+    }
+
+    /**
+     * Determines whether the best value found is known to be optimal.
+     * @return true if the best value is optimal, false otherwise.
+     */
+    public boolean isOptimal()
+    {
+        return this.upperBound <= this.bestValue;
+    }
+
+    /**
+     * Gets the best value found so far.
+     * @return Best value found so far.
+     */
+    public int getBestValue()
+    {
+        return this.bestValue;
+    }
+
+    /**
+     * Gets the items of the best solution found so far.
+     * @return List of the selected items.
+     */
+    public List<Item> getSelectedItems()
+    {
+        List<Item> selected = new ArrayList<Item>();
+        for(int i = 0; i < this.n; i++)
+        {
+            if(this.bestTaken[i])
+            {
+                selected.add(this.items.getItem(this.order[i]));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Gets an upper bound of the optimal value of the whole instance: the
+     * value of its LP relaxation before searching, the best value once the
+     * search finishes, and the highest bound of the unexplored branches if
+     * the search ran out of time best-first.
+     * @return Upper bound of the optimal value.
+     */
+    public int getUpperBound()
+    {
+        return (int) Math.min(Integer.MAX_VALUE, this.upperBound);
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Searches depth-first from the best solution found, and if that takes
+     * too long, proves optimality best-first.
+     * @return Best value found.
+     */
+    private int search()
+    {
+        this.nodes = 0;
+        this.expired = false;
+        boolean finished = this.searchDepthFirst();
+
+        // If the depth-first search took too long, proves optimality
+        // best-first from the best solution found
+        if(!finished && !this.expired)
+        {
+            System.out.println("-- [" + this.nodes + " nodes explored " +
+                    "depth-first, switching to best-first search.]");
+            finished = this.searchBestFirst();
+        }
+        if(finished)
+        {
+            this.upperBound = this.bestValue;
+        }
+        return this.bestValue;
+    }
+
+    /**
+     * Determines whether the time limit has passed, checking the clock only
+     * once every DEADLINE_CHECK_MASK + 1 nodes.
+     * @return true if the search must stop, false otherwise.
+     */
+    private boolean isPastDeadline()
+    {
+        if(this.timed && (this.nodes & BranchAndBound.DEADLINE_CHECK_MASK) == 0
+                && System.nanoTime() - this.deadline >= 0)
+        {
+            this.expired = true;
+        }
+        return this.expired;
+    }
+
+    /**
+     * Packs the sorted items in order while they fit.
+     * @param taken Array in which to mark the packed items.
+     * @return Value of the packed items.
+     */
+    private int findGreedy(boolean[] taken)
+    {
+        long room = this.W;
+        int value = 0;
+        for(int i = 0; i < this.n; i++)
+        {
+            if(this.weights[i] <= room)
+            {
+                taken[i] = true;
+                room -= this.weights[i];
+                value += this.values[i];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Finds the value of the LP relaxation of the items from level on with
+     * the room left, plus the given value: the items are packed in order
+     * while they fit, and then a fraction of the next one.
+     * @param level Index of the first sorted item to consider.
+     * @param value Value packed so far.
+     * @param weight Weight packed so far.
+     * @return Floor of the upper bound of any solution of the branch.
+     */
+    private long bound(int level, long value, long weight)
+    {
+        // Finds the last item j such that items [level...j) fit whole
+        long limit = this.prefixWeights[level] + (this.W - weight);
+        int j = Arrays.binarySearch(this.prefixWeights, level, this.n + 1,
+                limit);
+        if(j < 0)
+        {
+            j = -j - 2;
+        }
+        while(j < this.n && this.prefixWeights[j + 1] <= limit)
+        {
+            j++;    // Skips items of weight 0 after the one found
+        }
+        long bound = value + this.prefixValues[j] - this.prefixValues[level];
+        if(j < this.n)
+        {
+            long room = limit - this.prefixWeights[j];
+            bound += (room * this.values[j]) / this.weights[j];
+        }
+        return bound;
+    }
+
+    /**
+     * Explores the tree of the sorted items depth-first, trying to take each
+     * item before leaving it out. The current branch is kept in the taken
+     * array instead of the call stack, so any number of items can be
+     * searched.
+     * @return true if the tree was fully explored, false if the search
+     * stopped after DFS_MAX_NODES nodes or because of the time limit.
+     */
+    private boolean searchDepthFirst()
+    {
+        Arrays.fill(this.taken, false);
+        int level = 0;
+        int value = 0;
+        long weight = 0;
+        while(true)
+        {
+            if(++this.nodes > BranchAndBound.DFS_MAX_NODES
+                    || this.isPastDeadline())
+            {
+                return false;
+            }
+            if(value > this.bestValue)
+            {
+                this.bestValue = value;
+                System.arraycopy(this.taken, 0, this.bestTaken, 0, this.n);
+            }
+
+            // Goes down taking the item if it fits, leaving it out otherwise
+            if(level < this.n
+                    && this.bound(level, value, weight) > this.bestValue)
+            {
+                if(weight + this.weights[level] <= this.W)
+                {
+                    this.taken[level] = true;
+                    value += this.values[level];
+                    weight += this.weights[level];
+                }
+                level++;
+                continue;
+            }
+
+            // Goes back up to the last item taken and leaves it out
+            do
+            {
+                if(level == 0)
+                {
+                    return true;
+                }
+                level--;
+            }
+            while(!this.taken[level]);
+            this.taken[level] = false;
+            value -= this.values[level];
+            weight -= this.weights[level];
+            level++;
+        }
+    }
+
+    /**
+     * Explores the whole tree best-first, always expanding the open node with
+     * the highest bound, until no open node can beat the best solution.
+     * Nodes are stored in primitive arrays with a pointer to their parent.
+     * @return true if the search finished, false if it stopped because of
+     * the time limit.
+     */
+    private boolean searchBestFirst()
+    {
+        int capacity = 1024;
+        int [] parent = new int[capacity];
+        int [] level = new int[capacity];
+        int [] value = new int[capacity];
+        long [] weight = new long[capacity];
+        boolean [] isTaken = new boolean[capacity];
+        int count = 0;
+        int bestNode = -1;
+
+        // Heap keys hold (MAX - bound) in their upper bits so that the node
+        // with the highest bound comes out first
+        LongHeap open = new LongHeap(capacity);
+        parent[0] = -1;
+        count = 1;
+        open.add(this.heapKey(this.bound(0, 0, 0), 0));
+        while(!open.isEmpty())
+        {
+            long key = open.poll();
+            int node = (int) key;
+            long nodeBound = Integer.MAX_VALUE - (key >>> 32);
+            if(nodeBound <= this.bestValue)
+            {
+                break;  // No open node can beat the best solution
+            }
+            this.nodes++;
+            if(this.isPastDeadline())
+            {
+                // No open node has a higher bound than this one
+                this.upperBound = Math.min(this.upperBound, nodeBound);
+                break;
+            }
+            int i = level[node];
+
+            // Creates the children of taking and leaving out item i
+            for(int take = 1; take >= 0; take--)
+            {
+                long childWeight = weight[node] + take * this.weights[i];
+                if(childWeight > this.W)
+                {
+                    continue;
+                }
+                int childValue = value[node] + take * this.values[i];
+                long childBound = this.bound(i + 1, childValue, childWeight);
+                boolean improves = childValue > this.bestValue;
+                if(!improves && (i + 1 == this.n
+                        || childBound <= this.bestValue))
+                {
+                    continue;
+                }
+                if(count == capacity)
+                {
+                    capacity *= 2;
+                    parent = Arrays.copyOf(parent, capacity);
+                    level = Arrays.copyOf(level, capacity);
+                    value = Arrays.copyOf(value, capacity);
+                    weight = Arrays.copyOf(weight, capacity);
+                    isTaken = Arrays.copyOf(isTaken, capacity);
+                }
+                int child = count++;
+                parent[child] = node;
+                level[child] = i + 1;
+                value[child] = childValue;
+                weight[child] = childWeight;
+                isTaken[child] = take == 1;
+                if(improves)
+                {
+                    this.bestValue = childValue;
+                    bestNode = child;
+                }
+                if(i + 1 < this.n && childBound > this.bestValue)
+                {
+                    open.add(this.heapKey(childBound, child));
+                }
+            }
+        }
+
+        // Rebuilds the best solution walking up from its node
+        if(bestNode != -1)
+        {
+            Arrays.fill(this.bestTaken, false);
+            for(int node = bestNode; parent[node] != -1; node = parent[node])
+            {
+                this.bestTaken[level[node] - 1] = isTaken[node];
+            }
+        }
+        System.out.println("-- [" + count + " nodes explored best-first.]");
+        return !this.expired;
+    }
+
+    /**
+     * Packs the given bound and node in a key of a min-heap so that nodes
+     * with higher bounds come out first.
+     * @param bound Bound of the node, at most Integer.MAX_VALUE.
+     * @param node Index of the node.
+     * @return Key for the heap.
+     */
+    private long heapKey(long bound, int node)
+    {
+        long priority = Integer.MAX_VALUE - Math.min(bound, Integer.MAX_VALUE);
+        return (priority << 32) | node;
+    }
+}
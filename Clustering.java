@@ -10,11 +10,13 @@
  */
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class that implements a greedy algorithm for computing the max-spacing
@@ -24,42 +26,11 @@ import java.util.Vector;
 public class Clustering
 {
     //-------------------------------------------------------------------------
-    // CLASS VARIABLES
+    // CONSTANT
     //-------------------------------------------------------------------------
 
-    // Maps the vertices that comprise each cluster. Uses list-chaining to
-    // assign the vertices of each cluster.
-    private static Map<Integer,List<Integer>> clusterVertices;
-
-    // Maps the cluster of each vertex. In this case there's no need for
-    // chaining since each vertex can only belong to one cluster.
-    private static Map<Integer,Integer> vertexCluster;
-
-    // Stores the number of clusters in any given moment.
-    // clusterNumber = clustersVertices.getKeys().size()
-    private static int clustersNumber;
-
-    // Stores the distance of the closest pair of separated points
-    private static int closestPairSpacing;
-
-    // Stores the index of the distances array that is being considered
-    private static int currentDistanceIndex;
-
-    // Stores those pair of nodes (edges) with distances between them less than
-    // the given distance
-    private static Map<Integer, Edge> pairs;
-
-    // Heap to store the absolute difference of each pair of nodes whose
-    // distance is less than the given distance
-    private static PriorityQueue<Integer> heap;
-
-    // Maps an edge's id with its key in the heap. Uses chaining given
-    // that many edges may contain the same key (distance between points)
-    private static Map<Integer,List<Integer>> heapKeyPairs;
-
-    // Maps heap keys with their respective edge. In this case there's no need
-    // for chaining since each key contains one single edge
-    private static Map<Integer,Integer> pairHeapKey;
+    // Number of nodes per block when comparing all pairs of nodes
+    public static final int PAIRS_BLOCK = 256;
 
     //-------------------------------------------------------------------------
     // CONSTRUCTOR
@@ -82,106 +53,227 @@ public class Clustering
     public static int findMaxClustering(int [][] nodes, int n, int bits,
                                         int spacing)
     {
-        // Initializes data structures
-        Clustering.clusterVertices = new HashMap<Integer, List<Integer>>(n);
-        Clustering.vertexCluster = new HashMap<Integer, Integer>(n);
-        Clustering.pairs = new HashMap<Integer, Edge>(n * 2);
-        Clustering.heap = new PriorityQueue<Integer>(n * 2);
-        Clustering.heapKeyPairs = new HashMap<Integer, List<Integer>>(n * 2);
-        Clustering.pairHeapKey = new HashMap<Integer, Integer>(n * 2);
-
         // Builds and ASCII-characters encoding for faster
         int [] bitsSum = Clustering.findSumOfBits(nodes, n, bits);
 
-        // Initializes points putting each of them on a separate cluster
-        Clustering.initClusters(n);
-
-        // Initializes pairs map and heap only with those pairs whose hamming
+        // Initializes pairs and heap only with those pairs whose hamming
         // distance in between is strictly less than the given spacing
-        Clustering.initPairsAndHeap(nodes, bitsSum, n, bits, spacing);
+        int [] pairs = Clustering.initPairs(nodes, bitsSum, n, bits, spacing);
+        LongHeap heap = Clustering.initHeap(pairs);
+
+        // Initializes points putting each of them on a separate cluster
+        UnionFind clusters = new UnionFind(n);
 
         // Finds the largest value of k such that there is a k-clustering with
-        // spacing at least s
-        System.out.println("Merging clusters and updating heap in order to" +
-                " find k...");
-        while(!Clustering.heap.isEmpty() && Clustering.clustersNumber > 1)
+        // spacing at least s. Pairs whose points already are in the same
+        // cluster are discarded as they come out of the heap, instead of
+        // being removed from it after every merge.
+        System.out.println("Merging clusters in order to find k...");
+        while(!heap.isEmpty() && clusters.getCount() > 1)
         {
-            // Gets the closest pair of separated points from the heap
-            Edge closestPair = Clustering.extractFromHeap();
+            // Gets the closest pair of points from the heap and merges their
+            // clusters if they are separated
+            int t = (int) heap.poll();
+            if(clusters.union(pairs[3 * t], pairs[3 * t + 1]))
+            {
+                // Prints message in standard output for logging purposes
+                if(clusters.getCount() % 100 == 0)
+                {
+                    System.out.println("-- [" + clusters.getCount() +
+                            " clusters left, " + heap.size() +
+                            " elements remaining in heap, so far]");
+                }
+            }
+        }
+        System.out.println("...k found.");
 
-            // Merges the clusters that contain p and q into a single one
-            Integer p = Integer.valueOf(closestPair.getTail());
-            Integer q = Integer.valueOf(closestPair.getHead());
-            int clusterOfP = Clustering.vertexCluster.get(p);
-            int clusterOfQ = Clustering.vertexCluster.get(q);
-            int newCluster = Clustering.mergeClusters(clusterOfP, clusterOfQ);
+        // Returns the largest value of k
+        return clusters.getCount();
+    }
 
-            // Removes from heap pairs of points that belong to same cluster
-            Clustering.updateHeap(newCluster);
+    /**
+     * Finds the largest value of k such that there is a k-clustering with
+     * spacing at least s taking into account the hamming distance between each
+     * of the nodes, like findMaxClustering, but without comparing every pair
+     * of nodes. Each node is packed into a long, identical codes are merged
+     * through a hash map, and for each distinct code only the codes within
+     * spacing - 1 bit flips are looked up; O(n * C(bits, spacing - 1))
+     * algorithm. <br/>
+     * <b>Pre: </b>bits <= 64.
+     * @param nodes Matrix with the associated bits for each node.
+     * @param n Number of nodes.
+     * @param bits Number of bits per node.
+     * @param spacing Minimum spacing to look for.
+     * @return Largest value of k for a k-clustering with spacing at least s.
+     */
+    public static int findMaxClusteringByNeighbors(int [][] nodes, int n,
+                                                   int bits, int spacing)
+    {
+        long [] codes = Clustering.packNodes(nodes, n, bits);
+        return Clustering.findMaxClusteringByNeighbors(codes, n, bits,
+                spacing);
+    }
+
+    /**
+     * Finds the largest value of k such that there is a k-clustering with
+     * spacing at least s for the given nodes, each packed into a long with
+     * its bit j (0-indexed from the left) at position bits - 1 - j.
+     * @param codes Packed bits of each node.
+     * @param n Number of nodes.
+     * @param bits Number of bits per node.
+     * @param spacing Minimum spacing to look for.
+     * @return Largest value of k for a k-clustering with spacing at least s.
+     * @see #findMaxClusteringByNeighbors(int[][], int, int, int)
+     */
+    public static int findMaxClusteringByNeighbors(long [] codes, int n,
+                                                   int bits, int spacing)
+    {
+        UnionFind clusters = new UnionFind(n);
 
-            // Prints message in standard output for logging purposes
-            if(Clustering.clustersNumber % 100 == 0)
+        // Merges nodes with identical codes, keeping the first one of each
+        System.out.println("Merging nodes with identical codes...");
+        LongIntMap codeNode = new LongIntMap(n);
+        for(int i = 0; i < n; i++)
+        {
+            int first = codeNode.get(codes[i]);
+            if(first == LongIntMap.NOT_FOUND)
+            {
+                codeNode.put(codes[i], i);
+            }
+            else
+            {
+                clusters.union(first, i);
+            }
+        }
+        System.out.println("..." + codeNode.size() + " distinct codes.");
+
+        // Merges each node with those whose codes are within spacing - 1
+        // flipped bits from its own
+        System.out.println("Merging clusters of neighboring codes in order " +
+                "to find k...");
+        long [] masks = Hamming.flipMasks(bits, spacing - 1);
+        for(int i = 0; i < n; i++)
+        {
+            if(codeNode.get(codes[i]) != i)
             {
-                System.out.println("-- [" + Clustering.clustersNumber +
-                        " clusters left, " + Clustering.heap.size() +
-                        " elements remaining in heap, so far]");
+                continue;   // Node's code was already explored
+            }
+            for(long mask : masks)
+            {
+                int j = codeNode.get(codes[i] ^ mask);
+                if(j != LongIntMap.NOT_FOUND)
+                {
+                    clusters.union(i, j);
+                }
+            }
+            // Message in standard output for logging purposes
+            if((i + 1) % 50000 == 0)
+            {
+                System.out.println("-- [" + (i + 1) + " nodes explored, " +
+                        clusters.getCount() + " clusters left, so far]");
             }
         }
         System.out.println("...k found.");
 
         // Returns the largest value of k
-        return Clustering.clustersNumber;
+        return clusters.getCount();
     }
 
     /**
      * Finds the maximum spacing of a k-clustering of the distance function
-     * represented in the given graph.
+     * represented in the given graph. Uses Kruskal's algorithm over a
+     * UnionFind of the vertices, stopping once there are only k clusters;
+     * O(m log m) algorithm.
      * @param graph Graph with the distance function to examine.
      * @param k Number of clusters desired.
-     * @return Maximum spacing of a k-clustering of the given graph.
+     * @return Maximum spacing of a k-clustering of the given graph, or
+     * Integer.MAX_VALUE if no edge joins two of the k clusters.
      */
     public static int findMaxSpacing(Graph graph, int k)
     {
-        // Initializes data structures
+        // Sorts the edges in order to identify the closest pair of points
         int m = graph.getM();
-        int n = graph.getN();
-        Clustering.clusterVertices = new HashMap<Integer, List<Integer>>(m);
-        Clustering.vertexCluster = new HashMap<Integer, Integer>(n);
-        int [] distances = new int[m];
-
-        // Sorts the distances in order to identify the closest pair of points
-        QuickEdges.sortEdges(graph, distances);
+        int [] tails = new int[m];
+        int [] heads = new int[m];
+        int [] costs = new int[m];
+        int [] order = Clustering.sortEdgesByCost(graph, tails, heads, costs);
 
         // Initializes points putting each of them on a separate cluster
-        Clustering.clustersNumber = 1;
-        for(Integer vertexId: graph.getVertexKeys())
+        int maxVertexId = 0;
+        for(Integer vertexId : graph.getVertexKeys())
         {
-            Clustering.addToCluster(vertexId, Clustering.clustersNumber++);
+            maxVertexId = Math.max(maxVertexId, vertexId);
         }
-        Clustering.clustersNumber--;
+        UnionFind clusters = new UnionFind(maxVertexId);
+        int clustersNumber = graph.getN();
 
-        // Repeats until there are only k clusters
-        Clustering.currentDistanceIndex = 0;
-        int [] pAndQ;
-        while(Clustering.clustersNumber > k)
+        // Merges the clusters of the closest pair of separated points until
+        // there are only k clusters, then returns the distance between the
+        // next closest pair of separated points
+        for(int i = 0; i < m; i++)
         {
-            // Gets the closest pair of points, guaranteeing that they belong
-            // to different clusters
-            pAndQ = Clustering.updateClosestPairSpacing(graph, distances);
-
-            // Merges the clusters that contain p and q into a single one
-            Integer p = Integer.valueOf(pAndQ[0]);
-            Integer q = Integer.valueOf(pAndQ[1]);
-            int clusterOfP = Clustering.vertexCluster.get(p);
-            int clusterOfQ = Clustering.vertexCluster.get(q);
-            Clustering.mergeClusters(clusterOfP, clusterOfQ);
+            int e = order[i];
+            int p = tails[e] - 1;
+            int q = heads[e] - 1;
+            if(clusters.connected(p, q))
+            {
+                continue;
+            }
+            if(clustersNumber <= k)
+            {
+                return costs[e];
+            }
+            clusters.union(p, q);
+            clustersNumber--;
         }
+        return Integer.MAX_VALUE;
+    }
 
-        // Finds and updates the closest pair spacing
-        Clustering.updateClosestPairSpacing(graph, distances);
-
-        // Returns the distance between the closest pair of separated points
-        return Clustering.closestPairSpacing;
+    /**
+     * Builds the single-linkage dendrogram of the distance function
+     * represented in the given graph, recording every merge done by
+     * Kruskal's algorithm until a single cluster is left. The dendrogram
+     * answers the max-spacing and clusters of any k without re-running the
+     * algorithm; O(m log m) algorithm. <br/>
+     * <b>Pre: </b>The ids of the vertices are in [1...n], vertex id i + 1
+     * being point i of the dendrogram.
+     * @param graph Graph with the distance function to examine.
+     * @return Dendrogram with the merges done.
+     */
+    public static Dendrogram buildDendrogram(Graph graph)
+    {
+        // Sorts the edges in order to identify the closest pair of points
+        int m = graph.getM();
+        int n = graph.getN();
+        int [] tails = new int[m];
+        int [] heads = new int[m];
+        int [] costs = new int[m];
+        int [] order = Clustering.sortEdgesByCost(graph, tails, heads, costs);
+
+        // Merges the clusters of the closest pair of separated points until
+        // there is a single cluster, recording the dendrogram cluster held by
+        // the root of each set of the UnionFind
+        UnionFind clusters = new UnionFind(n);
+        int [] rootCluster = new int[n];
+        for(int i = 0; i < n; i++)
+        {
+            rootCluster[i] = i;
+        }
+        Dendrogram dendrogram = new Dendrogram(n);
+        for(int i = 0; i < m && clusters.getCount() > 1; i++)
+        {
+            int e = order[i];
+            int p = clusters.find(tails[e] - 1);
+            int q = clusters.find(heads[e] - 1);
+            if(p != q)
+            {
+                int newCluster = dendrogram.addMerge(rootCluster[p],
+                        rootCluster[q], costs[e]);
+                clusters.union(p, q);
+                rootCluster[clusters.find(p)] = newCluster;
+            }
+        }
+        return dendrogram;
     }
 
     //-------------------------------------------------------------------------
@@ -220,309 +312,213 @@ public class Clustering
     }
 
     /**
-     * Initializes the pairs map and the heap only with those pairs whose
-     * distance in between is strictly less than the given spacing.
+     * Packs the bits of each node into a long, bit j of the node going to
+     * position bits - 1 - j of its code.
+     * <b>Pre: </b>bits <= 64.
      * @param nodes Matrix with the associated bits for each node.
-     * @param bitsSum Sum of the bits of each node.
      * @param n Number of nodes.
      * @param bits Number of bits per node.
-     * @param spacing Minimum spacing to look for.
+     * @return Array with the packed code of each node.
      */
-    private static void initPairsAndHeap(int[][] nodes, int[] bitsSum,
-                                         int n, int bits, int spacing)
+    private static long [] packNodes(int[][] nodes, int n, int bits)
     {
-        System.out.println("Initializing pairs with hamming distance < given" +
-                " spacing, and heap...");
-        int newEdgeId = 1;
-        for(int i = 0; i < n - 1; i++)
+        long [] codes = new long[n];
+        for(int i = 0; i < n; i++)
         {
-            for(int j = i + 1; j < n; j++)
+            long code = 0;
+            for(int j = 0; j < bits; j++)
             {
-                // If difference is > spacing, we know distance will be too
-                int difference = Math.abs(bitsSum[i] - bitsSum[j]);
-                if(difference < spacing)
-                {
-                    int distance = Clustering.closestPairHammingDistance(nodes,
-                            i, j, bits, spacing);
-                    if(distance < spacing)
-                    {
-                        // Creates new edge and adds it to the heap
-                        Edge edge = new Edge(newEdgeId, i + 1, j + 1, distance);
-                        Clustering.pairs.put(newEdgeId, edge);
-                        Clustering.addToHeap(distance, newEdgeId++);
-
-                        // Message in standard output for logging purposes
-                        if(newEdgeId % 200 == 0)
-                        {
-                            System.out.println("-- " + newEdgeId + " pairs " +
-                                    "w/ hamming distance < spacing, so far.");
-                        }
-                    }
-                }
+                code = (code << 1) | (nodes[i][j] & 1);
             }
+            codes[i] = code;
         }
-        System.out.println("...pairs and heap initialized.");
+        return codes;
     }
 
     /**
-     * Initializes points putting each of them on a separate cluster.
+     * Finds the pairs of nodes whose distance in between is strictly less
+     * than the given spacing. Nodes are packed into words and compared with
+     * Hamming.distance, block by block so that both blocks of a comparison
+     * stay in cache, and the rows of blocks are split across the available
+     * processors.
+     * @param nodes Matrix with the associated bits for each node.
+     * @param bitsSum Sum of the bits of each node.
      * @param n Number of nodes.
+     * @param bits Number of bits per node.
+     * @param spacing Minimum spacing to look for.
+     * @return Array with the (i, j, distance) triples of the pairs found, one
+     * after the other, i and j being 0-indexed.
      */
-    private static void initClusters(int n)
+    private static int [] initPairs(int[][] nodes, final int[] bitsSum,
+                                    final int n, int bits, final int spacing)
     {
-        System.out.println("Initializing clusters...");
-        Clustering.clustersNumber = 1;
-        for(int i = 0; i < n; i++)
+        System.out.println("Initializing pairs with hamming distance < given" +
+                " spacing...");
+        final long [] codes = Hamming.pack(nodes, n, bits);
+        final int words = Hamming.words(bits);
+        int [] pairs;
+
+        // Finds the close pairs of each row of blocks in parallel
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> blockPairs = new ArrayList<Future<int[]>>();
+        try
         {
-            Clustering.addToCluster(i+1, Clustering.clustersNumber++);
-            // Message in standard output for logging purposes
-            if((i + 1) % 5000 == 0)
+            for(int lb = 0; lb < n; lb += Clustering.PAIRS_BLOCK)
             {
-                System.out.println("-- " + (i + 1) + " clusters so far.");
+                final int blockStart = lb;
+                blockPairs.add(pool.submit(new Callable<int[]>()
+                {
+                    public int[] call()
+                    {
+                        return Clustering.findClosePairs(codes, bitsSum,
+                                blockStart, n, words, spacing);
+                    }
+                }));
             }
-        }
-        Clustering.clustersNumber--;
-        System.out.println("...clusters initialized.");
-    }
 
-    /**
-     * Updates the heap removing from it the edges whose both points belong to
-     * the same new cluster.
-     * <b>Pre:</b> Given cluster has just been expanded with new points.
-     * @param newCluster Id of the new (big) cluster that was just merged.
-     */
-    private static void updateHeap(int newCluster)
-    {
-        // Initializes auxiliary data structures
-        int m = Clustering.pairs.size();
-        int initialCap = (m > 1)? (m / 2) : 1;
-        Map<Integer, Edge> auxPairs = new HashMap<Integer, Edge>(initialCap);
-        PriorityQueue<Integer> auxHeap = new PriorityQueue<Integer>(initialCap);
-        Map<Integer, List<Integer>> auxHeapKeyPairs =
-                new HashMap<Integer, List<Integer>>(initialCap);
-        Map<Integer, Integer> auxPairHeapKey =
-                new HashMap<Integer, Integer>(initialCap);
-
-        // Given that pairs collection contains the edges whose ids are in the
-        // heap, we can walk through it to add only the corresponding pairs
-        for(Integer edgeId : Clustering.pairs.keySet())
-        {
-            Edge edge = Clustering.pairs.get(edgeId);
-            Integer p = edge.getTail();
-            Integer q = edge.getHead();
-            if(!(Clustering.vertexCluster.get(p) == newCluster &&
-                    Clustering.vertexCluster.get(q) == newCluster))
+            // Joins the pairs found in order of their blocks
+            int size = 0;
+            List<int[]> found = new ArrayList<int[]>(blockPairs.size());
+            for(Future<int[]> result : blockPairs)
             {
-                // Adds value to auxPairs
-                auxPairs.put(edgeId, edge);
-
-                // Adds value to auxHeap updating the corresponding hashmaps
-                int auxDistance = edge.getCost();
-                auxHeap.add(auxDistance);
-                List<Integer> auxEdgeIds = auxHeapKeyPairs.remove(auxDistance);
-                if(auxEdgeIds == null)
+                int [] block = result.get();
+                found.add(block);
+                size += block.length;
+                // Message in standard output for logging purposes
+                if(found.size() % 100 == 0)
                 {
-                    auxEdgeIds = new ArrayList<Integer>();
+                    System.out.println("-- " + (size / 3) + " pairs " +
+                            "w/ hamming distance < spacing, so far.");
                 }
-                auxEdgeIds.add(edgeId);
-                auxHeapKeyPairs.put(auxDistance, auxEdgeIds);
-                auxPairHeapKey.put(edgeId, auxDistance);
             }
-        }
-        // Updates data structures' references
-        Clustering.pairs = auxPairs;
-        Clustering.heap = auxHeap;
-        Clustering.heapKeyPairs = auxHeapKeyPairs;
-        Clustering.pairHeapKey = auxPairHeapKey;
-    }
-
-
-    /**
-     * Determines whether nodes at positions i and j of the given array differ
-     * by at most the given spacing bits or not. Returns hamming distance if
-     * conditions met.
-     * @param nodes Matrix with the associated bits for each node.
-     * @param i Position of the first node in the nodes array to compare.
-     * @param j Position of the second node in the nodes array to compare.
-     * @param bits Number of bits per node.
-     * @param spacing Maximum number of differing bits accepted.
-     * @return Hamming distance if <= given distance, any bigger distance
-     * otherwise.
-     */
-    private static int closestPairHammingDistance(int[][] nodes, int i, int j,
-                                                  int bits, int spacing)
-    {
-        // Walks through the bits of each node comparing them
-        int distance = 0;
-        for(int bit = 0; bit < bits; bit++)
-        {
-            if(nodes[i][bit] != nodes[j][bit])
+            pairs = new int[size];
+            size = 0;
+            for(int [] block : found)
             {
-                if (++distance > spacing)
-                {   // Don't need to calculate the rest
-                    return distance;
-                }
+                System.arraycopy(block, 0, pairs, size, block.length);
+                size += block.length;
             }
         }
-        // Returns the real distance
-        return distance;
-    }
-
-    /**
-     * Finds and updates the distance between the two vertices that belong to
-     * different clusters and are the closest to each other.
-     * @param graph Graph with the distance function to examine.
-     * @param distances Array of int with the ids of the edges or pairs.
-     * @return Array of size 2 with p and q in positions 0 and 1 respectively.
-     */
-    private static int [] updateClosestPairSpacing(Graph graph, int[] distances)
-    {
-        // Gets the closest pair of points guaranteeing that they belong to
-        // different clusters
-        int closestPair = distances[Clustering.currentDistanceIndex++];
-        Edge edge = graph.getEdge(Integer.valueOf(closestPair));
-        Integer p = Integer.valueOf(edge.getTail());
-        Integer q = Integer.valueOf(edge.getHead());
-        while(Clustering.vertexCluster.get(p)
-                == Clustering.vertexCluster.get(q))
-        {
-            closestPair = distances[Clustering.currentDistanceIndex++];
-            edge = graph.getEdge(Integer.valueOf(closestPair));
-            p = edge.getTail();
-            q = edge.getHead();
-        }
-        Clustering.closestPairSpacing = edge.getCost();
-        // Stores p and q in an array of integers and returns it
-        int [] pAndQ = new int[2];
-        pAndQ[0] = p;
-        pAndQ[1] = q;
-        return pAndQ;
-    }
-
-    /**
-     * Merges the clusters with the given ids into a single one. <br/>
-     * <b>Pre:</b> clusterOfP != clusterOfQ.
-     * @param clusterOfP Id of the first cluster to merge.
-     * @param clusterOfQ Id of the second cluster to merge.
-     * @return Id of the new (big) cluster (could be clusterOfP or clusterOfQ).
-     */
-    private static int mergeClusters(int clusterOfP, int clusterOfQ)
-    {
-        // Moves vertices from the smaller cluster to the bigger one
-        int sizeOfClusterOfP
-                = Clustering.clusterVertices.get(Integer.valueOf(clusterOfP))
-                .size();
-        int sizeOfClusterOfQ
-                = Clustering.clusterVertices.get(Integer.valueOf(clusterOfQ))
-                .size();
-        List<Integer> verticesIds = null;
-        int originCluster = 0;
-        int destinationCluster = 0;
-        if(sizeOfClusterOfP >= sizeOfClusterOfQ)
+        catch(InterruptedException e)
         {
-            originCluster = clusterOfQ;
-            destinationCluster = clusterOfP;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while finding " +
+                    "close pairs.", e);
         }
-        else
+        catch(ExecutionException e)
         {
-            originCluster = clusterOfP;
-            destinationCluster = clusterOfQ;
+            throw new IllegalStateException("Failed to find close pairs.",
+                    e.getCause());
         }
-
-        // Removes each vertex from originCluster and adds it to
-        // destinationCluster
-        verticesIds =
-                Clustering.clusterVertices.get(Integer.valueOf(originCluster));
-        List<Integer> verticesAux = new Vector<Integer>(verticesIds);
-        for(Integer vertexId : verticesAux)
+        finally
         {
-            // Removes vertex from one cluster and adds it to the other
-            Clustering.removeFromCluster(originCluster, vertexId);
-            Clustering.addToCluster(destinationCluster, vertexId);
+            pool.shutdownNow();
         }
-
-        // Updates clustersNumber
-        Clustering.clustersNumber = Clustering.clusterVertices.size();
-
-        // Returns the id of the new (big) cluster
-        return destinationCluster;
+        System.out.println("..." + (pairs.length / 3) + " pairs found.");
+        return pairs;
     }
 
     /**
-     * Adds the edge with the given id to the heap, putting its respective
-     * distance in the heap and mapping its edgeId as appropriate.
-     * @param distance Key to add to the heap.
-     * @param edgeId Id of the edge to map with the given distance.
+     * Builds a heap with the pairs found by initPairs, each key holding the
+     * distance of a pair in its upper 32 bits and the index of the pair in
+     * its lower 32 bits; O(p) algorithm.
+     * @param pairs Array with the (i, j, distance) triples of the pairs.
+     * @return Heap with the keys of every pair.
      */
-    private static void addToHeap(int distance, int edgeId)
+    private static LongHeap initHeap(int[] pairs)
     {
-        Clustering.heap.add(distance);
-        List<Integer> edgeIds = Clustering.heapKeyPairs.remove(distance);
-        if(edgeIds == null)
+        int p = pairs.length / 3;
+        long [] keys = new long[p];
+        for(int t = 0; t < p; t++)
         {
-            edgeIds = new ArrayList<Integer>();
+            keys[t] = ((long) pairs[3 * t + 2] << 32) | t;
         }
-        edgeIds.add(edgeId);
-        Clustering.heapKeyPairs.put(distance, edgeIds);
-        Clustering.pairHeapKey.put(edgeId, distance);
-    }
-
-    /**
-     * Extracts a value from the heap updating collections as appropriate. If
-     * there is more than one edge with the same score (distance), gets the
-     * first one from the chained list.
-     * @return The edge that has been removed from the heap.
-     */
-    private static Edge extractFromHeap()
-    {
-        // Removes the smallest distance from the heap
-        int distance = Clustering.heap.poll();
-
-        // Updates hashmaps accordingly
-        List<Integer> edgeIds = Clustering.heapKeyPairs.remove(distance);
-        int edgeId = edgeIds.remove(0);
-        Clustering.heapKeyPairs.put(distance, edgeIds);
-        Clustering.pairHeapKey.remove(edgeId);
-
-        // Removes the edge from its set and returns it
-        Edge edge = Clustering.pairs.remove(Integer.valueOf(edgeId));
-        return edge;
+        return new LongHeap(keys, p);
     }
 
     /**
-     * Adds the given vertex to the given cluster. Updates maps as appropriate.
-     * @param clusterId Id of the cluster to which the vertex will be assigned.
-     * @param vertexId Id of the vertex to assign to the given cluster.
+     * Finds the pairs (i, j), i < j, whose hamming distance is strictly less
+     * than the given spacing, for every node i in the block of PAIRS_BLOCK
+     * rows starting at blockStart. Columns are walked one block at a time so
+     * the words of both blocks are reused while they are in cache.
+     * @param codes Flat array with the packed words of each node.
+     * @param bitsSum Sum of the bits of each node.
+     * @param blockStart Index of the first node of the block.
+     * @param n Number of nodes.
+     * @param words Number of words per node.
+     * @param spacing Minimum spacing to look for.
+     * @return Array with the (i, j, distance) triples found, one after the
+     * other.
      */
-    private static void addToCluster(int clusterId, Integer vertexId)
+    private static int [] findClosePairs(long[] codes, int[] bitsSum,
+                                         int blockStart, int n, int words,
+                                         int spacing)
     {
-        List<Integer> verticesIds =
-                Clustering.clusterVertices.remove(Integer.valueOf(clusterId));
-        if(verticesIds == null)
+        int [] found = new int[48];
+        int size = 0;
+        int blockEnd = Math.min(blockStart + Clustering.PAIRS_BLOCK, n);
+        for(int jb = blockStart; jb < n; jb += Clustering.PAIRS_BLOCK)
         {
-            verticesIds = new Vector<Integer>();
+            int jbEnd = Math.min(jb + Clustering.PAIRS_BLOCK, n);
+            for(int i = blockStart; i < blockEnd; i++)
+            {
+                for(int j = Math.max(i + 1, jb); j < jbEnd; j++)
+                {
+                    // If difference is > spacing, we know distance will be too
+                    if(Math.abs(bitsSum[i] - bitsSum[j]) >= spacing)
+                    {
+                        continue;
+                    }
+                    int distance = Hamming.distance(codes, i, j, words,
+                            spacing - 1);
+                    if(distance < spacing)
+                    {
+                        if(size + 3 > found.length)
+                        {
+                            found = Arrays.copyOf(found, found.length * 2);
+                        }
+                        found[size++] = i;
+                        found[size++] = j;
+                        found[size++] = distance;
+                    }
+                }
+            }
         }
-        verticesIds.add(vertexId);
-        Clustering.clusterVertices.put(clusterId, verticesIds);
-        Clustering.vertexCluster.put(vertexId, clusterId);
+        return Arrays.copyOf(found, size);
     }
 
     /**
-     * Removes the given vertex from the given cluster. Updates maps as
-     * appropriate. <br/>
-     * <b>Pre:</b> The given vertex is found in the given cluster.
-     * @param clusterId Id of the cluster from which the vertex will be removed.
-     * @param vertexId Id of the vertex to be removed.
+     * Stores the tail, head and cost of each edge of the given graph in the
+     * given arrays, and sorts the edges in increasing order of their costs.
+     * The costs are sorted by radix sort along with the position of each
+     * edge, so the sort takes O(m) time per byte in which costs differ, and
+     * edges of equal cost keep their order in the graph.
+     * @param graph Graph to examine.
+     * @param tails Array of size m in which to store the tail of each edge.
+     * @param heads Array of size m in which to store the head of each edge.
+     * @param costs Array of size m in which to store the cost of each edge.
+     * @return Positions of the edges in increasing order of their costs.
+     * @see RadixSort
      */
-    private static void removeFromCluster(int clusterId, Integer vertexId)
+    private static int [] sortEdgesByCost(Graph graph, int[] tails,
+                                          int[] heads, int[] costs)
     {
-        List<Integer> verticesIds =
-                Clustering.clusterVertices.remove(Integer.valueOf(clusterId));
-        verticesIds.remove(vertexId);
-        if(verticesIds.size() > 0)
+        int m = graph.getM();
+        int [] keys = new int[m];
+        int [] order = new int[m];
+        int i = 0;
+        for(Integer edgeId : graph.getEdgeKeys())
         {
-            Clustering.clusterVertices.put(clusterId, verticesIds);
+            Edge edge = graph.getEdge(edgeId);
+            tails[i] = edge.getTail();
+            heads[i] = edge.getHead();
+            costs[i] = edge.getCost();
+            keys[i] = costs[i];
+            order[i] = i;
+            i++;
         }
-        Clustering.vertexCluster.remove(vertexId);
+        RadixSort.sort(keys, order);
+        return order;
     }
 }
@@ -0,0 +1,189 @@
+/**
+ * $Id: Dendrogram.java, v 1.0 19/10/26 14:02 oscarfabra Exp $
+ * {@code Dendrogram} Represents the sequence of merges done by single-linkage
+ * clustering over a set of points.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * Class that represents the sequence of merges done by single-linkage
+ * clustering over n points, stored in primitive arrays. Clusters are
+ * numbered as follows: point i (0-indexed) is cluster i, and the cluster
+ * created by the t-th merge is cluster n + t. Merges are kept in increasing
+ * order of distance, so the first n - k merges give the max-spacing
+ * k-clustering and merge n - k gives its spacing.
+ * @see Clustering#buildDendrogram(Graph)
+ */
+public class Dendrogram
+{
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Number of points
+    private int n;
+
+    // Number of merges recorded, at most n - 1
+    private int merges;
+
+    // First and second cluster joined by each merge
+    private int [] first;
+    private int [] second;
+
+    // Distance between the clusters joined by each merge
+    private int [] distances;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new empty Dendrogram for n points.
+     * @param n Number of points.
+     */
+    public Dendrogram(int n)
+    {
+        this.n = n;
+        int capacity = Math.max(n - 1, 0);
+        this.first = new int[capacity];
+        this.second = new int[capacity];
+        this.distances = new int[capacity];
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Records a new merge of the given clusters, which becomes cluster
+     * n + getMerges() - 1.
+     * <b>Pre: </b>distance >= distance of the previous merge.
+     * @param a Id of the first cluster joined.
+     * @param b Id of the second cluster joined.
+     * @param distance Distance between both clusters.
+     * @return Id of the new cluster.
+     */
+    public int addMerge(int a, int b, int distance)
+    {
+        this.first[this.merges] = a;
+        this.second[this.merges] = b;
+        this.distances[this.merges] = distance;
+        return this.n + this.merges++;
+    }
+
+    /**
+     * Gets the number of points.
+     * @return Number of points.
+     */
+    public int getN()
+    {
+        return this.n;
+    }
+
+    /**
+     * Gets the number of merges recorded. It is n - 1 unless the points form
+     * more than one connected component.
+     * @return Number of merges.
+     */
+    public int getMerges()
+    {
+        return this.merges;
+    }
+
+    /**
+     * Gets the id of the first cluster joined by merge t.
+     * @param t Index of the merge.
+     * @return Id of the first cluster joined.
+     */
+    public int getFirst(int t)
+    {
+        return this.first[t];
+    }
+
+    /**
+     * Gets the id of the second cluster joined by merge t.
+     * @param t Index of the merge.
+     * @return Id of the second cluster joined.
+     */
+    public int getSecond(int t)
+    {
+        return this.second[t];
+    }
+
+    /**
+     * Gets the distance between the clusters joined by merge t.
+     * @param t Index of the merge.
+     * @return Distance of the merge.
+     */
+    public int getDistance(int t)
+    {
+        return this.distances[t];
+    }
+
+    /**
+     * Gets the maximum spacing of a k-clustering, i.e. the distance of the
+     * merge that would leave k - 1 clusters; O(1) algorithm.
+     * @param k Number of clusters, k in [1...n].
+     * @return Maximum spacing of a k-clustering, or Integer.MAX_VALUE if no
+     * merge joins two of the k clusters.
+     */
+    public int getMaxSpacing(int k)
+    {
+        int t = this.n - k;
+        return (t < this.merges) ? this.distances[t] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the cluster of each point in the max-spacing k-clustering by
+     * replaying the first n - k merges; O(n) algorithm. Clusters are
+     * labeled 0, 1, ... in order of their first point.
+     * @param k Number of clusters, k in [1...n].
+     * @return Array with the cluster of each point.
+     */
+    public int [] getClusters(int k)
+    {
+        // Replays the merges linking each joined cluster to the new one
+        int [] parent = new int[this.n + this.merges];
+        for(int c = 0; c < parent.length; c++)
+        {
+            parent[c] = c;
+        }
+        int replay = Math.min(Math.max(this.n - k, 0), this.merges);
+        for(int t = 0; t < replay; t++)
+        {
+            parent[this.first[t]] = this.n + t;
+            parent[this.second[t]] = this.n + t;
+        }
+
+        // Labels each point after the root of its cluster, since merges only
+        // point to later clusters the roots are found walking up the parents
+        int [] clusters = new int[this.n];
+        int [] label = new int[this.n + replay];
+        int next = 0;
+        for(int i = 0; i < this.n; i++)
+        {
+            int c = i;
+            while(parent[c] != c)
+            {
+                c = parent[c];
+            }
+            // Compresses the path of point i for the next points
+            int d = i;
+            while(parent[d] != c)
+            {
+                int up = parent[d];
+                parent[d] = c;
+                d = up;
+            }
+            if(label[c] == 0)
+            {
+                label[c] = ++next;
+            }
+            clusters[i] = label[c] - 1;
+        }
+        return clusters;
+    }
+}
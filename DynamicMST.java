@@ -0,0 +1,452 @@
+/**
+ * $Id: DynamicMST.java, v 1.0 19/10/26 11:25 oscarfabra Exp $
+ * {@code DynamicMST} Class that maintains the minimum spanning tree (forest)
+ * of an undirected graph under edge insertions.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that maintains the Minimum Spanning Tree (MST) of an undirected graph
+ * with n vertices while new edges are inserted, without recomputing it from
+ * scratch. The tree is kept in a link-cut tree in which every tree edge is an
+ * extra node between its two vertices, so the most expensive edge on the
+ * cycle induced by a new edge is found in O(log n) amortized time. <br/>
+ * If the graph is not connected yet, a minimum spanning forest is kept.
+ * @see MST
+ * @see Edge
+ */
+public class DynamicMST
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Value for nodes with no parent or child
+    private static final int NIL = -1;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Number of vertices of the graph
+    private int n;
+
+    // Overall cost of the current MST
+    private long cost;
+
+    // Number of edges in the current MST
+    private int size;
+
+    // Link-cut tree nodes: [0...n) are vertices, [n...2n - 1) are tree edges
+    private int [] parent;
+    private int [] left;
+    private int [] right;
+    private boolean [] reversed;
+
+    // Cost of each node (vertices have the lowest possible cost)
+    private int [] value;
+
+    // Node with the maximum cost in the splay subtree of each node
+    private int [] max;
+
+    // Edge held by each edge node, null if the slot is free
+    private Edge [] edges;
+
+    // Stack of free edge nodes
+    private int [] freeSlots;
+    private int freeCount;
+
+    // Stack of the nodes from a node up to its splay root, reused by splay
+    private int [] path;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new DynamicMST for a graph with n vertices and no edges.
+     * @param n Number of vertices, whose ids are in [1...n].
+     */
+    public DynamicMST(int n)
+    {
+        this.n = n;
+        int nodes = n + Math.max(n - 1, 0);
+        this.parent = new int[nodes];
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.reversed = new boolean[nodes];
+        this.value = new int[nodes];
+        this.max = new int[nodes];
+        this.edges = new Edge[nodes];
+        this.path = new int[Math.max(nodes, 1)];
+        for(int x = 0; x < nodes; x++)
+        {
+            this.parent[x] = NIL;
+            this.left[x] = NIL;
+            this.right[x] = NIL;
+            this.value[x] = Integer.MIN_VALUE;
+            this.max[x] = x;
+        }
+        this.freeSlots = new int[nodes - n];
+        for(int x = nodes - 1; x >= n; x--)
+        {
+            this.freeSlots[this.freeCount++] = x;
+        }
+    }
+
+    /**
+     * Creates a new DynamicMST for the given edges inserting them one by one.
+     * @param n Number of vertices, whose ids are in [1...n].
+     * @param edges Edges to insert.
+     */
+    public DynamicMST(int n, List<Edge> edges)
+    {
+        this(n);
+        for(Edge edge : edges)
+        {
+            this.insert(edge);
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Inserts the given edge into the graph and updates the MST. If its
+     * vertices are in different trees the edge joins them; otherwise it
+     * replaces the most expensive edge of the induced cycle if it is cheaper
+     * than it. O(log n) amortized algorithm.
+     * @param edge Edge to insert, with tail and head in [1...n].
+     * @return true if the MST changed, false otherwise.
+     */
+    public boolean insert(Edge edge)
+    {
+        int u = edge.getTail() - 1;
+        int v = edge.getHead() - 1;
+        if(u == v)
+        {
+            return false;
+        }
+        if(this.findRoot(u) != this.findRoot(v))
+        {
+            this.addTreeEdge(edge);
+            return true;
+        }
+
+        // Finds the most expensive edge on the path from u to v
+        this.makeRoot(u);
+        this.access(v);
+        this.splay(v);
+        int heaviest = this.max[v];
+        if(this.value[heaviest] <= edge.getCost())
+        {
+            return false;
+        }
+        this.removeTreeEdge(heaviest);
+        this.addTreeEdge(edge);
+        return true;
+    }
+
+    /**
+     * Gets the overall cost of the current MST; O(1) algorithm.
+     * @return The overall cost of the current MST.
+     */
+    public long getCost()
+    {
+        return this.cost;
+    }
+
+    /**
+     * Gets the number of edges of the current MST.
+     * @return Number of edges of the current MST.
+     */
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Determines whether the current MST spans all the vertices.
+     * @return true if the MST has n - 1 edges, false otherwise.
+     */
+    public boolean isSpanning()
+    {
+        return this.size == this.n - 1;
+    }
+
+    /**
+     * Determines whether the vertices with the given ids are connected.
+     * @param tail Id of the first vertex.
+     * @param head Id of the second vertex.
+     * @return true if both vertices are in the same tree, false otherwise.
+     */
+    public boolean connected(int tail, int head)
+    {
+        return this.findRoot(tail - 1) == this.findRoot(head - 1);
+    }
+
+    /**
+     * Gets the edges of the current MST.
+     * @return List with the edges of the current MST.
+     */
+    public List<Edge> getEdges()
+    {
+        List<Edge> treeEdges = new ArrayList<Edge>(this.size);
+        for(int x = this.n; x < this.edges.length; x++)
+        {
+            if(this.edges[x] != null)
+            {
+                treeEdges.add(this.edges[x]);
+            }
+        }
+        return treeEdges;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Adds the given edge to the MST through a new edge node.
+     * <b>Pre: </b>The vertices of the edge are in different trees.
+     * @param edge Edge to add.
+     */
+    private void addTreeEdge(Edge edge)
+    {
+        int x = this.freeSlots[--this.freeCount];
+        this.edges[x] = edge;
+        this.value[x] = edge.getCost();
+        this.max[x] = x;
+        this.link(x, edge.getTail() - 1);
+        this.link(x, edge.getHead() - 1);
+        this.cost += edge.getCost();
+        this.size++;
+    }
+
+    /**
+     * Removes the edge held by the given edge node from the MST.
+     * @param x Edge node to remove.
+     */
+    private void removeTreeEdge(int x)
+    {
+        Edge edge = this.edges[x];
+        this.cut(x, edge.getTail() - 1);
+        this.cut(x, edge.getHead() - 1);
+        this.edges[x] = null;
+        this.value[x] = Integer.MIN_VALUE;
+        this.freeSlots[this.freeCount++] = x;
+        this.cost -= edge.getCost();
+        this.size--;
+    }
+
+    /**
+     * Determines whether x is the root of its splay tree.
+     * @param x Node to examine.
+     * @return true if x is the root of its splay tree, false otherwise.
+     */
+    private boolean isSplayRoot(int x)
+    {
+        int p = this.parent[x];
+        return p == NIL || (this.left[p] != x && this.right[p] != x);
+    }
+
+    /**
+     * Pushes the pending reversal of x down to its children.
+     * @param x Node to update.
+     */
+    private void push(int x)
+    {
+        if(this.reversed[x])
+        {
+            int aux = this.left[x];
+            this.left[x] = this.right[x];
+            this.right[x] = aux;
+            if(this.left[x] != NIL)
+            {
+                this.reversed[this.left[x]] ^= true;
+            }
+            if(this.right[x] != NIL)
+            {
+                this.reversed[this.right[x]] ^= true;
+            }
+            this.reversed[x] = false;
+        }
+    }
+
+    /**
+     * Recomputes the maximum of x from its children.
+     * @param x Node to update.
+     */
+    private void pull(int x)
+    {
+        int best = x;
+        int l = this.left[x];
+        int r = this.right[x];
+        if(l != NIL && this.value[this.max[l]] > this.value[best])
+        {
+            best = this.max[l];
+        }
+        if(r != NIL && this.value[this.max[r]] > this.value[best])
+        {
+            best = this.max[r];
+        }
+        this.max[x] = best;
+    }
+
+    /**
+     * Rotates x over its parent.
+     * @param x Node to rotate.
+     */
+    private void rotate(int x)
+    {
+        int p = this.parent[x];
+        int g = this.parent[p];
+        if(!this.isSplayRoot(p))
+        {
+            if(this.left[g] == p)
+            {
+                this.left[g] = x;
+            }
+            else
+            {
+                this.right[g] = x;
+            }
+        }
+        this.parent[x] = g;
+        if(this.left[p] == x)
+        {
+            this.left[p] = this.right[x];
+            if(this.right[x] != NIL)
+            {
+                this.parent[this.right[x]] = p;
+            }
+            this.right[x] = p;
+        }
+        else
+        {
+            this.right[p] = this.left[x];
+            if(this.left[x] != NIL)
+            {
+                this.parent[this.left[x]] = p;
+            }
+            this.left[x] = p;
+        }
+        this.parent[p] = x;
+        this.pull(p);
+        this.pull(x);
+    }
+
+    /**
+     * Splays x to the root of its splay tree.
+     * @param x Node to splay.
+     */
+    private void splay(int x)
+    {
+        // Pushes pending reversals from the splay root down to x, stacking
+        // the nodes in between on the path array of the tree
+        int depth = 0;
+        int y = x;
+        this.path[depth] = y;
+        while(!this.isSplayRoot(y))
+        {
+            y = this.parent[y];
+            this.path[++depth] = y;
+        }
+        for(int i = depth; i >= 0; i--)
+        {
+            this.push(this.path[i]);
+        }
+
+        while(!this.isSplayRoot(x))
+        {
+            int p = this.parent[x];
+            if(!this.isSplayRoot(p))
+            {
+                int g = this.parent[p];
+                boolean zigZig = (this.left[g] == p) == (this.left[p] == x);
+                this.rotate(zigZig ? p : x);
+            }
+            this.rotate(x);
+        }
+    }
+
+    /**
+     * Makes the path from the root of the represented tree to x preferred.
+     * @param x Node to access.
+     */
+    private void access(int x)
+    {
+        int last = NIL;
+        for(int y = x; y != NIL; y = this.parent[y])
+        {
+            this.splay(y);
+            this.right[y] = last;
+            this.pull(y);
+            last = y;
+        }
+        this.splay(x);
+    }
+
+    /**
+     * Makes x the root of its represented tree.
+     * @param x Node to become root.
+     */
+    private void makeRoot(int x)
+    {
+        this.access(x);
+        this.reversed[x] ^= true;
+    }
+
+    /**
+     * Finds the root of the represented tree that contains x.
+     * @param x Node to examine.
+     * @return Root of the tree that contains x.
+     */
+    private int findRoot(int x)
+    {
+        this.access(x);
+        this.push(x);
+        while(this.left[x] != NIL)
+        {
+            x = this.left[x];
+            this.push(x);
+        }
+        this.splay(x);
+        return x;
+    }
+
+    /**
+     * Links x as a child of y.
+     * <b>Pre: </b>x and y are in different trees.
+     * @param x First node.
+     * @param y Second node.
+     */
+    private void link(int x, int y)
+    {
+        this.makeRoot(x);
+        this.parent[x] = y;
+    }
+
+    /**
+     * Cuts the tree edge between x and y.
+     * <b>Pre: </b>x and y are adjacent in their represented tree.
+     * @param x First node.
+     * @param y Second node.
+     */
+    private void cut(int x, int y)
+    {
+        this.makeRoot(x);
+        this.access(y);
+        this.push(y);
+        this.left[y] = NIL;
+        this.parent[x] = NIL;
+        this.pull(y);
+    }
+}
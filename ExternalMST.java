@@ -0,0 +1,408 @@
+/**
+ * $Id: ExternalMST.java, v 1.0 19/10/26 10:40 oscarfabra Exp $
+ * {@code ExternalMST} Class that computes the minimum spanning tree of an
+ * undirected graph whose edges are read from a file that may not fit in
+ * memory.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class that computes the Minimum Spanning Tree (MST) of an undirected graph
+ * using Kruskal's algorithm over an edge file. The edges are read in runs of
+ * bounded size, each run is sorted in memory and spilled to a temporary file,
+ * and the sorted runs are then k-way merged and streamed through a UnionFind.
+ * Only O(n + runSize) state is kept in memory at any given moment. <br/>
+ * Output follows the conventions of the MST class: the overall cost is
+ * returned and the ids of the selected edges are added to the given list.
+ * @see MST
+ * @see UnionFind
+ */
+public class ExternalMST
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Default number of edges to sort in memory for each run
+    public static final int DEFAULT_RUN_SIZE = 1 << 20;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //-------------------------------------------------------------------------
+
+    private ExternalMST(){ }        // This class shouldn't be instantiated
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Finds the MST of the graph whose edges are in the given file using runs
+     * of DEFAULT_RUN_SIZE edges.
+     * @param fileName Path of the file with the edges of the graph.
+     * @param n Number of vertices of the graph.
+     * @param mst List of Integers in which to store the ids of the MST edges.
+     * @return The overall cost of the MST found.
+     * @throws IOException If the edges file or a run can't be read or written.
+     * @see #solve(String, int, int, List)
+     */
+    public static long solve(String fileName, int n, List<Integer> mst)
+            throws IOException
+    {
+        return ExternalMST.solve(fileName, n, ExternalMST.DEFAULT_RUN_SIZE,
+                mst);
+    }
+
+    /**
+     * Finds the MST of the graph whose edges are in the given file using
+     * Kruskal's algorithm over externally sorted runs; O(m log m) algorithm.
+     * Edge ids are assigned in order of appearance starting from 1, as in
+     * Graph.buildVertexEdges. <br/>
+     * <b>Pre: </b>Each line of the file has the form "a b c" where a is the
+     * tail, b the head, and c the (integral) cost of each edge, a, b in
+     * [1...n].
+     * @param fileName Path of the file with the edges of the graph.
+     * @param n Number of vertices of the graph.
+     * @param runSize Maximum number of edges to sort in memory at once.
+     * @param mst List of Integers in which to store the ids of the MST edges.
+     * @return The overall cost of the MST found.
+     * @throws IOException If the edges file or a run can't be read or written.
+     */
+    public static long solve(String fileName, int n, int runSize,
+                             List<Integer> mst) throws IOException
+    {
+        System.out.println("Building Minimum Spanning Tree using external " +
+                "Kruskal's Algorithm...");
+        List<File> runs = ExternalMST.spillSortedRuns(fileName, runSize);
+        try
+        {
+            long cost = ExternalMST.mergeRuns(runs, n, mst);
+            System.out.println("...MST built.");
+            return cost;
+        }
+        finally
+        {
+            for(File run : runs)
+            {
+                run.delete();
+            }
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Reads the edges file in chunks of runSize edges, sorts each chunk by
+     * (cost, id) and writes it to a temporary binary file as a sorted run.
+     * Each record of a run is the tuple (cost, tail, head, id) of ints.
+     * @param fileName Path of the file with the edges of the graph.
+     * @param runSize Maximum number of edges to sort in memory at once.
+     * @return List of temporary files with the sorted runs.
+     * @throws IOException If the edges file or a run can't be read or written.
+     */
+    private static List<File> spillSortedRuns(String fileName, int runSize)
+            throws IOException
+    {
+        int [] costs = new int[runSize];
+        int [] tails = new int[runSize];
+        int [] heads = new int[runSize];
+        int [] ids = new int[runSize];
+        long [] keys = new long[runSize];
+        List<File> runs = new ArrayList<File>();
+
+        // Deletes the runs written so far if anything fails, including a
+        // malformed line of the edges file
+        boolean spilled = false;
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try
+        {
+            int newEdgeId = 1;
+            int size = 0;
+            String line;
+            while((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if(line.isEmpty())
+                {
+                    continue;
+                }
+                String [] values = line.split("\\s+");
+                tails[size] = Integer.parseInt(values[0]);
+                heads[size] = Integer.parseInt(values[1]);
+                costs[size] = Integer.parseInt(values[2]);
+                ids[size++] = newEdgeId++;
+                if(size == runSize)
+                {
+                    runs.add(ExternalMST.writeRun(costs, tails, heads, ids,
+                            keys, size));
+                    size = 0;
+                    System.out.println("-- [" + runs.size() + " runs " +
+                            "spilled so far.]");
+                }
+            }
+            if(size > 0)
+            {
+                runs.add(ExternalMST.writeRun(costs, tails, heads, ids, keys,
+                        size));
+            }
+            spilled = true;
+        }
+        finally
+        {
+            try
+            {
+                reader.close();
+            }
+            finally
+            {
+                if(!spilled)
+                {
+                    for(File run : runs)
+                    {
+                        run.delete();
+                    }
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Sorts the first size edges of the given arrays by (cost, id) and writes
+     * them to a new temporary file. Since ids grow with the position in the
+     * arrays, sorting (cost, position) pairs packed in a long is enough.
+     * @param costs Costs of the edges.
+     * @param tails Tail vertices of the edges.
+     * @param heads Head vertices of the edges.
+     * @param ids Ids of the edges.
+     * @param keys Scratch array of at least size elements.
+     * @param size Number of edges to write.
+     * @return The temporary file with the sorted run.
+     * @throws IOException If the run can't be written.
+     */
+    private static File writeRun(int[] costs, int[] tails, int[] heads,
+                                 int[] ids, long[] keys, int size)
+            throws IOException
+    {
+        for(int i = 0; i < size; i++)
+        {
+            keys[i] = ((long) costs[i] << 32) | i;
+        }
+        Arrays.sort(keys, 0, size);
+
+        File run = File.createTempFile("mst-run-", ".bin");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(run), 1 << 16));
+        try
+        {
+            for(int i = 0; i < size; i++)
+            {
+                int j = (int) keys[i];
+                out.writeInt(costs[j]);
+                out.writeInt(tails[j]);
+                out.writeInt(heads[j]);
+                out.writeInt(ids[j]);
+            }
+        }
+        catch(IOException e)
+        {
+            out.close();
+            run.delete();
+            throw e;
+        }
+        out.close();
+        return run;
+    }
+
+    /**
+     * Merges the given sorted runs through a primitive heap of run indices,
+     * adding each edge whose endpoints are in different components to the
+     * MST, until the MST spans all n vertices or the runs are exhausted.
+     * @param runs Temporary files with the sorted runs.
+     * @param n Number of vertices of the graph.
+     * @param mst List of Integers in which to store the ids of the MST edges.
+     * @return The overall cost of the MST found.
+     * @throws IOException If a run can't be read.
+     */
+    private static long mergeRuns(List<File> runs, int n, List<Integer> mst)
+            throws IOException
+    {
+        int k = runs.size();
+        DataInputStream [] in = new DataInputStream[k];
+        int [][] current = new int[k][4];
+        int [] heap = new int[k];
+        int heapSize = 0;
+        long cost = 0;
+
+        try
+        {
+            // Opens every run and puts its first edge in the heap
+            for(int r = 0; r < k; r++)
+            {
+                in[r] = new DataInputStream(new BufferedInputStream(
+                        new FileInputStream(runs.get(r)), 1 << 16));
+                if(ExternalMST.readEdge(in[r], current[r]))
+                {
+                    heap[heapSize] = r;
+                    ExternalMST.siftUp(heap, heapSize++, current);
+                }
+            }
+
+            // Streams edges in increasing order of cost through the UnionFind
+            UnionFind components = new UnionFind(n);
+            int edgesAdded = 0;
+            while(heapSize > 0 && edgesAdded < n - 1)
+            {
+                int r = heap[0];
+                int [] edge = current[r];
+                if(components.union(edge[1] - 1, edge[2] - 1))
+                {
+                    cost += edge[0];
+                    mst.add(edge[3]);
+                    edgesAdded++;
+                    // Message in standard output for logging purposes
+                    if(edgesAdded % 100000 == 0)
+                    {
+                        System.out.println("-- [" + edgesAdded + " edges " +
+                                "added so far.]");
+                    }
+                }
+
+                // Replaces the extracted edge with the next one of its run
+                if(!ExternalMST.readEdge(in[r], edge))
+                {
+                    heap[0] = heap[--heapSize];
+                }
+                ExternalMST.siftDown(heap, 0, heapSize, current);
+            }
+        }
+        finally
+        {
+            for(int r = 0; r < k; r++)
+            {
+                if(in[r] != null)
+                {
+                    in[r].close();
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Reads the next (cost, tail, head, id) record of the given run.
+     * @param in Stream of the run.
+     * @param edge Array of size 4 in which to store the record.
+     * @return true if a record was read, false if the run is exhausted.
+     * @throws IOException If the run can't be read.
+     */
+    private static boolean readEdge(DataInputStream in, int[] edge)
+            throws IOException
+    {
+        try
+        {
+            edge[0] = in.readInt();
+        }
+        catch(EOFException e)
+        {
+            return false;
+        }
+        edge[1] = in.readInt();
+        edge[2] = in.readInt();
+        edge[3] = in.readInt();
+        return true;
+    }
+
+    /**
+     * Determines whether the current edge of run r precedes the current edge
+     * of run s in (cost, id) order.
+     * @param current Current edge of each run.
+     * @param r First run.
+     * @param s Second run.
+     * @return true if the edge of run r goes first, false otherwise.
+     */
+    private static boolean less(int[][] current, int r, int s)
+    {
+        if(current[r][0] != current[s][0])
+        {
+            return current[r][0] < current[s][0];
+        }
+        return current[r][3] < current[s][3];
+    }
+
+    /**
+     * Moves the run at index i of the heap up until the heap order is
+     * restored.
+     * @param heap Heap of run indices.
+     * @param i Index of the heap to sift up.
+     * @param current Current edge of each run.
+     */
+    private static void siftUp(int[] heap, int i, int[][] current)
+    {
+        int r = heap[i];
+        while(i > 0)
+        {
+            int parent = (i - 1) / 2;
+            if(!ExternalMST.less(current, r, heap[parent]))
+            {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = r;
+    }
+
+    /**
+     * Moves the run at index i of the heap down until the heap order is
+     * restored.
+     * @param heap Heap of run indices.
+     * @param i Index of the heap to sift down.
+     * @param size Number of runs in the heap.
+     * @param current Current edge of each run.
+     */
+    private static void siftDown(int[] heap, int i, int size, int[][] current)
+    {
+        if(size == 0)
+        {
+            return;
+        }
+        int r = heap[i];
+        while(2 * i + 1 < size)
+        {
+            int child = 2 * i + 1;
+            if(child + 1 < size
+                    && ExternalMST.less(current, heap[child + 1], heap[child]))
+            {
+                child++;
+            }
+            if(!ExternalMST.less(current, heap[child], r))
+            {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+}
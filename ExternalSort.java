@@ -0,0 +1,386 @@
+/**
+ * $Id: ExternalSort.java, v1.0 19/10/26 10:55 PM oscarfabra Exp $
+ * {@code ExternalSort} Class that sorts binary files of int numbers bigger
+ * than the memory available.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class that sorts a binary file of big-endian int numbers into another one
+ * by external merge sort. The input is split in chunks of at most a given
+ * number of ints, each of which is read through a memory-mapped region of
+ * the file, sorted with QuickSort and written as a sorted run to a temporary
+ * file, the chunks being sorted in parallel on a fixed pool of threads. Then
+ * the runs are merged in a single pass, reading each one through a buffer
+ * of BUFFER_SIZE ints and taking the smallest next int of all of them from
+ * a LongHeap. At most one chunk per thread is kept in memory at once.
+ * @see QuickSort
+ * @see LongHeap
+ */
+public class ExternalSort
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Default number of ints of each chunk sorted in memory
+    public static final int CHUNK_SIZE = 1 << 24;
+
+    // Number of ints of the window of each run and of the output buffer
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //-------------------------------------------------------------------------
+
+    // This class should not be instantiated
+    private ExternalSort(){}
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts the ints of the given input file into the given output file,
+     * using chunks of CHUNK_SIZE ints and as many threads as available
+     * processors.
+     * @param inputFile Path of the file to sort.
+     * @param outputFile Path of the file in which to write the sorted ints.
+     * @return Number of ints sorted.
+     * @throws IOException If a file can't be read or written.
+     * @see #sort(String, String, int, int)
+     */
+    public static long sort(String inputFile, String outputFile)
+            throws IOException
+    {
+        return ExternalSort.sort(inputFile, outputFile,
+                ExternalSort.CHUNK_SIZE,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sorts the ints of the given input file into the given output file.
+     * The sorted runs are kept in a temporary file next to the output file,
+     * deleted once they are merged; if there is a single run, it is written
+     * straight to the output file.
+     * <b>Pre: </b>The input file has 4 bytes per int, big-endian.
+     * @param inputFile Path of the file to sort.
+     * @param outputFile Path of the file in which to write the sorted ints.
+     * @param chunkSize Number of ints of each chunk sorted in memory, in
+     *                  [1...2^29).
+     * @param threads Number of threads that sort the chunks, at least 1.
+     * @return Number of ints sorted.
+     * @throws IOException If a file can't be read or written.
+     */
+    public static long sort(String inputFile, String outputFile,
+                            int chunkSize, int threads) throws IOException
+    {
+        if(chunkSize < 1 || chunkSize >= 1 << 29)
+        {
+            throw new IllegalArgumentException("Chunk size must be in " +
+                    "[1...2^29): " + chunkSize);
+        }
+        RandomAccessFile input = new RandomAccessFile(inputFile, "r");
+        try
+        {
+            FileChannel inputChannel = input.getChannel();
+            long n = inputChannel.size() / 4;
+            int runs = (int) ((n + chunkSize - 1) / chunkSize);
+
+            // Sorts a single run straight into the output file
+            File output = new File(outputFile).getAbsoluteFile();
+            if(runs <= 1)
+            {
+                ExternalSort.sortRuns(inputChannel, n, n, output, 1);
+                return n;
+            }
+
+            // Sorts the runs into a temporary file and merges them
+            File runsFile = File.createTempFile("runs", ".tmp",
+                    output.getParentFile());
+            try
+            {
+                ExternalSort.sortRuns(inputChannel, n, chunkSize, runsFile,
+                        threads);
+                ExternalSort.mergeRuns(runsFile, n, chunkSize, runs, output);
+            }
+            finally
+            {
+                runsFile.delete();
+            }
+            return n;
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts each chunk of the given input in parallel and writes it to the
+     * same position of the given file.
+     * @param input Channel of the file to sort.
+     * @param n Number of ints of the input.
+     * @param chunkSize Number of ints of each chunk.
+     * @param runsFile File in which to write the sorted chunks.
+     * @param threads Number of threads that sort the chunks.
+     * @throws IOException If a file can't be read or written.
+     */
+    private static void sortRuns(final FileChannel input, final long n,
+                                 final long chunkSize, File runsFile,
+                                 int threads) throws IOException
+    {
+        RandomAccessFile runs = new RandomAccessFile(runsFile, "rw");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            runs.setLength(4 * n);
+            final FileChannel runsChannel = runs.getChannel();
+            List<Future<Void>> sorted = new ArrayList<Future<Void>>();
+            for(long lb = 0; lb < n; lb += chunkSize)
+            {
+                final long start = lb;
+                sorted.add(pool.submit(new Callable<Void>()
+                {
+                    public Void call() throws IOException
+                    {
+                        int size = (int) Math.min(chunkSize, n - start);
+                        int [] chunk = new int[size];
+                        input.map(FileChannel.MapMode.READ_ONLY, 4 * start,
+                                4L * size).asIntBuffer().get(chunk);
+                        QuickSort.sort(chunk);
+                        runsChannel.map(FileChannel.MapMode.READ_WRITE,
+                                4 * start, 4L * size).asIntBuffer().put(chunk);
+                        return null;
+                    }
+                }));
+            }
+            for(Future<Void> run : sorted)
+            {
+                run.get();
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sorting " +
+                    "runs.", e);
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to sort runs.",
+                    e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+            runs.close();
+        }
+    }
+
+    /**
+     * Merges the sorted runs of the given file into the output file. Each
+     * key of the heap packs the next int of a run with the index of the run
+     * as (value << 32) | run, so the smallest key holds the smallest int.
+     * @param runsFile File with the sorted runs, one after the other.
+     * @param n Number of ints of the file.
+     * @param chunkSize Number of ints of each run but the last one.
+     * @param runs Number of runs.
+     * @param output File in which to write the merged ints.
+     * @throws IOException If a file can't be read or written.
+     */
+    private static void mergeRuns(File runsFile, long n, long chunkSize,
+                                  int runs, File output) throws IOException
+    {
+        RandomAccessFile input = new RandomAccessFile(runsFile, "r");
+        RandomAccessFile merged = new RandomAccessFile(output, "rw");
+        try
+        {
+            FileChannel inputChannel = input.getChannel();
+            FileChannel outputChannel = merged.getChannel();
+            merged.setLength(0);
+
+            // Puts the first int of each run in the heap
+            Run [] readers = new Run[runs];
+            LongHeap heap = new LongHeap(runs);
+            for(int r = 0; r < runs; r++)
+            {
+                long start = r * chunkSize;
+                readers[r] = new Run(inputChannel, 4 * start,
+                        4 * Math.min(start + chunkSize, n));
+                if(readers[r].hasNext())
+                {
+                    heap.add(((long) readers[r].next() << 32) | r);
+                }
+            }
+
+            // Writes the smallest int left and replaces it with the next int
+            // of its run
+            ByteBuffer buffer = ByteBuffer.allocateDirect(
+                    4 * ExternalSort.BUFFER_SIZE);
+            while(!heap.isEmpty())
+            {
+                long key = heap.poll();
+                int r = (int) key;
+                buffer.putInt((int) (key >> 32));
+                if(!buffer.hasRemaining())
+                {
+                    ExternalSort.flush(buffer, outputChannel);
+                }
+                if(readers[r].hasNext())
+                {
+                    heap.add(((long) readers[r].next() << 32) | r);
+                }
+            }
+            ExternalSort.flush(buffer, outputChannel);
+        }
+        finally
+        {
+            input.close();
+            merged.close();
+        }
+    }
+
+    /**
+     * Writes the ints of the given buffer to the given channel and clears it.
+     * @param buffer Buffer with the ints to write.
+     * @param channel Channel in which to write them.
+     * @throws IOException If the ints can't be written.
+     */
+    private static void flush(ByteBuffer buffer, FileChannel channel)
+            throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //-------------------------------------------------------------------------
+    // NESTED CLASSES
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorted run of a file, read through a buffer of BUFFER_SIZE ints that is
+     * refilled from the file as the ints are taken. Positional reads are
+     * used instead of mapping each window, since the mapped windows of many
+     * runs would pile up until garbage collected.
+     */
+    private static class Run
+    {
+        private final FileChannel channel;  // Channel of the file
+        private long position;              // Byte after the buffered ones
+        private final long end;             // Byte after the run
+        private final ByteBuffer buffer;    // Ints of the run read ahead
+
+        /**
+         * Creates a new Run with the bytes [start...end) of the given file.
+         * @param channel Channel of the file.
+         * @param start First byte of the run.
+         * @param end Byte after the run.
+         */
+        Run(FileChannel channel, long start, long end)
+        {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            this.buffer = ByteBuffer.allocate((int) Math.min(
+                    4L * ExternalSort.BUFFER_SIZE, end - start));
+            this.buffer.flip();
+        }
+
+        /**
+         * Determines whether the run has ints left, reading the next ones of
+         * the file if the buffer is over.
+         * @return true if there are ints left, false otherwise.
+         * @throws IOException If the file can't be read.
+         */
+        boolean hasNext() throws IOException
+        {
+            if(this.buffer.hasRemaining())
+            {
+                return true;
+            }
+            if(this.position >= this.end)
+            {
+                return false;
+            }
+            this.buffer.clear();
+            this.buffer.limit((int) Math.min(this.buffer.capacity(),
+                    this.end - this.position));
+            while(this.buffer.hasRemaining())
+            {
+                int read = this.channel.read(this.buffer, this.position);
+                if(read < 0)
+                {
+                    throw new IOException("Run ended before expected.");
+                }
+                this.position += read;
+            }
+            this.buffer.flip();
+            return true;
+        }
+
+        /**
+         * Takes the next int of the run.
+         * <b>Pre: </b>hasNext() is true.
+         * @return Next int of the run.
+         */
+        int next()
+        {
+            return this.buffer.getInt();
+        }
+    }
+    //-------------------------------------------------------------------------
+    // MAIN
+    //-------------------------------------------------------------------------
+
+    /**
+     * Main test method for the ExternalSort class. <br/>
+     * @param args Path of the file to sort, path of the file in which to
+     *             write the sorted ints and, optionally, the chunk size.
+     * @throws IOException If a file can't be read or written.
+     */
+    public static void main(String [] args) throws IOException
+    {
+        if(args.length < 2)
+        {
+            System.out.println("Usage: java ExternalSort <input> <output> " +
+                    "[chunk size]");
+            System.exit(-1);
+        }
+        int chunkSize = (args.length > 2) ? Integer.parseInt(args[2]) :
+                ExternalSort.CHUNK_SIZE;
+        long start = System.currentTimeMillis();
+        long n = ExternalSort.sort(args[0], args[1], chunkSize,
+                Runtime.getRuntime().availableProcessors());
+        System.out.println(n + " ints sorted in " +
+                (System.currentTimeMillis() - start) + " ms.");
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * $Id: Hamming.java, v 1.0 19/10/26 13:10 oscarfabra Exp $
+ * {@code Hamming} Class that packs bit vectors into words of a long array and
+ * computes hamming distances between them.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * Class that packs bit vectors of any width into 64-bit words and computes
+ * hamming distances between them one word at a time with Long.bitCount,
+ * which the JIT compiles to a single popcount instruction where the CPU has
+ * one. The packed vectors of n nodes live in one flat long array, node i
+ * taking the words [i * words...(i + 1) * words), so that nodes compared one
+ * after the other are also contiguous in memory.
+ */
+public class Hamming
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Number of bits per word
+    public static final int WORD_BITS = 64;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //-------------------------------------------------------------------------
+
+    private Hamming(){ }        // This class shouldn't be instantiated
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Gets the number of words needed to pack the given number of bits.
+     * @param bits Number of bits per node.
+     * @return Number of words per node.
+     */
+    public static int words(int bits)
+    {
+        return (bits + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    /**
+     * Packs the bits of each node into words, bit j of node i going to bit
+     * (j % 64) of word i * words + j / 64.
+     * @param nodes Matrix with the associated bits (0 or 1) for each node.
+     * @param n Number of nodes.
+     * @param bits Number of bits per node.
+     * @return Flat array with the packed words of each node.
+     */
+    public static long [] pack(int[][] nodes, int n, int bits)
+    {
+        int words = Hamming.words(bits);
+        long [] codes = new long[n * words];
+        for(int i = 0; i < n; i++)
+        {
+            int offset = i * words;
+            for(int j = 0; j < bits; j++)
+            {
+                if(nodes[i][j] != 0)
+                {
+                    codes[offset + j / WORD_BITS] |= 1L << (j % WORD_BITS);
+                }
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Finds the number of bits set in the packed node i.
+     * @param codes Flat array with the packed words of each node.
+     * @param i Index of the node.
+     * @param words Number of words per node.
+     * @return Number of bits set in node i.
+     */
+    public static int weight(long[] codes, int i, int words)
+    {
+        int weight = 0;
+        for(int w = i * words, end = w + words; w < end; w++)
+        {
+            weight += Long.bitCount(codes[w]);
+        }
+        return weight;
+    }
+
+    /**
+     * Finds the hamming distance between packed nodes i and j.
+     * @param codes Flat array with the packed words of each node.
+     * @param i Index of the first node.
+     * @param j Index of the second node.
+     * @param words Number of words per node.
+     * @return Hamming distance between nodes i and j.
+     */
+    public static int distance(long[] codes, int i, int j, int words)
+    {
+        int distance = 0;
+        int a = i * words;
+        int b = j * words;
+        for(int w = 0; w < words; w++)
+        {
+            distance += Long.bitCount(codes[a + w] ^ codes[b + w]);
+        }
+        return distance;
+    }
+
+    /**
+     * Finds the hamming distance between packed nodes i and j, stopping as
+     * soon as it exceeds the given limit.
+     * @param codes Flat array with the packed words of each node.
+     * @param i Index of the first node.
+     * @param j Index of the second node.
+     * @param words Number of words per node.
+     * @param limit Largest distance of interest.
+     * @return Hamming distance if <= given limit, any bigger distance
+     * otherwise.
+     */
+    public static int distance(long[] codes, int i, int j, int words,
+                               int limit)
+    {
+        int distance = 0;
+        int a = i * words;
+        int b = j * words;
+        for(int w = 0; w < words; w++)
+        {
+            distance += Long.bitCount(codes[a + w] ^ codes[b + w]);
+            if(distance > limit)
+            {   // Don't need to calculate the rest
+                return distance;
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Builds every mask of the given number of bits that has between 1 and
+     * maxFlips bits set, i.e. the XOR masks that lead from a code to all the
+     * codes within maxFlips hamming distance of it. <br/>
+     * <b>Pre: </b>bits <= 64.
+     * @param bits Number of bits per code.
+     * @param maxFlips Maximum number of bits set per mask.
+     * @return Array with the masks.
+     */
+    public static long [] flipMasks(int bits, int maxFlips)
+    {
+        // Counts the masks: sum of C(bits, d) for d in [1...maxFlips]
+        int count = 0;
+        long combinations = 1;
+        for(int d = 1; d <= maxFlips && d <= bits; d++)
+        {
+            combinations = combinations * (bits - d + 1) / d;
+            count += (int) combinations;
+        }
+        long [] masks = new long[count];
+        Hamming.flipMasks(masks, 0, 0L, 0, bits, maxFlips);
+        return masks;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Adds to masks, from index next on, every extension of the given mask
+     * obtained by setting up to flipsLeft more bits at positions >= from.
+     * @param masks Array in which to store the masks.
+     * @param next Next free index of the masks array.
+     * @param mask Mask built so far.
+     * @param from Lowest bit position that can still be set.
+     * @param bits Number of bits per code.
+     * @param flipsLeft Number of bits that can still be set.
+     * @return Next free index of the masks array.
+     */
+    private static int flipMasks(long[] masks, int next, long mask,
+                                 int from, int bits, int flipsLeft)
+    {
+        if(flipsLeft == 0)
+        {
+            return next;
+        }
+        for(int bit = from; bit < bits; bit++)
+        {
+            long extended = mask | (1L << bit);
+            masks[next++] = extended;
+            next = Hamming.flipMasks(masks, next, extended, bit + 1, bits,
+                    flipsLeft - 1);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,561 @@
+/**
+ * $Id: IntroSort.java, v1.0 19/10/26 09:05 PM oscarfabra Exp $
+ * {@code IntroSort} Class that sorts arrays of numbers using an introspective
+ * dual-pivot quicksort.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * Class that sorts arrays of int or long numbers, optionally moving an int
+ * payload (e.g. the ids of the elements) along with them, using an
+ * introspective dual-pivot quicksort: each range is split in three by two
+ * pivots taken from its tertiles, ranges of at most INSERTION_SORT_THRESHOLD
+ * elements are finished by insertion sort, and any range still unsorted
+ * after 2 * log2(n) levels of partitioning is sorted by heapsort. Sorting is
+ * thus O(n log n) in the worst case, with a recursion depth of O(log n),
+ * whatever the input: sorted arrays, reversed ones, or arrays with many
+ * duplicates, which end up in the middle partition, skipped when both
+ * pivots are equal. Used by QuickSort and QuickEdges.
+ */
+public class IntroSort
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Size of the ranges that are sorted by insertion sort
+    public static final int INSERTION_SORT_THRESHOLD = 32;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //-------------------------------------------------------------------------
+
+    // This class should not be instantiated
+    private IntroSort(){}
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Finds the maximum number of partitioning levels for a range of n
+     * elements before falling back to heapsort, 2 * floor(log2(n)).
+     * @param n Number of elements.
+     * @return Maximum depth of partitioning.
+     */
+    public static int maxDepth(int n)
+    {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    public static void sort(int[] a, int[] payload, int lb, int ub)
+    {
+        IntroSort.sort(a, payload, lb, ub, IntroSort.maxDepth(ub - lb + 1));
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload, with at most depth levels of partitioning left.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param depth Levels of partitioning left before using heapsort.
+     */
+    public static void sort(int[] a, int[] payload, int lb, int ub,
+                            int depth)
+    {
+        if(ub - lb < IntroSort.INSERTION_SORT_THRESHOLD)
+        {
+            IntroSort.insertionSort(a, payload, lb, ub);
+            return;
+        }
+        if(depth == 0)
+        {
+            IntroSort.heapSort(a, payload, lb, ub);
+            return;
+        }
+        long bounds = IntroSort.partition(a, payload, lb, ub);
+        int lt = (int) (bounds >>> 32);
+        int gt = (int) bounds;
+        long middle = IntroSort.middle(a, payload, lb, ub, lt, gt);
+        IntroSort.sort(a, payload, lb, lt - 1, depth - 1);
+        IntroSort.sort(a, payload, (int) (middle >>> 32), (int) middle,
+                depth - 1);
+        IntroSort.sort(a, payload, gt + 1, ub, depth - 1);
+    }
+
+    /**
+     * Finds the range of the middle partition (lt...gt) left by partition
+     * that still has to be sorted: none if both pivots are equal, and if the
+     * middle holds more than half of a[lb...ub], only the keys strictly
+     * between the pivots, once the keys equal to them are moved to its ends.
+     * Otherwise few distinct keys, e.g. two, would only lose the two pivots
+     * on each level.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index of the partitioned range.
+     * @param ub Upper-bound index of the partitioned range.
+     * @param lt Final index of pivot p1.
+     * @param gt Final index of pivot p2.
+     * @return Lower and upper bound indices of the range to sort, packed as
+     * (lower << 32) | upper, the upper one being smaller if it is empty.
+     */
+    public static long middle(int[] a, int[] payload, int lb, int ub, int lt,
+                              int gt)
+    {
+        int p1 = a[lt];
+        int p2 = a[gt];
+        if(p1 == p2)
+        {
+            return ((long) (lt + 1) << 32) | lt;
+        }
+        int first = lt + 1;
+        int last = gt - 1;
+        if(last - first > (ub - lb) / 2)
+        {
+            int i = first;
+            while(i <= last)
+            {
+                if(a[i] == p1)
+                {
+                    IntroSort.swap(a, payload, i++, first++);
+                }
+                else if(a[i] == p2)
+                {
+                    IntroSort.swap(a, payload, i, last--);
+                }
+                else
+                {
+                    i++;
+                }
+            }
+        }
+        return ((long) first << 32) | last;
+    }
+
+    /**
+     * Splits a in [lb...ub] in three by two pivots p1 <= p2 taken from its
+     * tertiles: elements < p1, elements in [p1...p2], and elements > p2.
+     * <b>Pre: </b>ub - lb >= 4.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return Final indices lt of p1 and gt of p2, packed as
+     * (lt << 32) | gt.
+     */
+    public static long partition(int[] a, int[] payload, int lb, int ub)
+    {
+        // Moves the pivots to both ends
+        int third = (ub - lb) / 3;
+        IntroSort.swap(a, payload, lb, lb + third);
+        IntroSort.swap(a, payload, ub, ub - third);
+        if(a[lb] > a[ub])
+        {
+            IntroSort.swap(a, payload, lb, ub);
+        }
+        int p1 = a[lb];
+        int p2 = a[ub];
+
+        // a[lb + 1...lt) < p1, a[lt...i) in [p1...p2], a(gt...ub - 1] > p2
+        int lt = lb + 1;
+        int gt = ub - 1;
+        int i = lb + 1;
+        while(i <= gt)
+        {
+            if(a[i] < p1)
+            {
+                IntroSort.swap(a, payload, i++, lt++);
+            }
+            else if(a[i] > p2)
+            {
+                while(a[gt] > p2 && i < gt)
+                {
+                    gt--;
+                }
+                IntroSort.swap(a, payload, i, gt--);
+                if(a[i] < p1)
+                {
+                    IntroSort.swap(a, payload, i, lt++);
+                }
+                i++;
+            }
+            else
+            {
+                i++;
+            }
+        }
+
+        // Moves the pivots to their final places
+        IntroSort.swap(a, payload, lb, --lt);
+        IntroSort.swap(a, payload, ub, ++gt);
+        return ((long) lt << 32) | gt;
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    public static void sort(long[] a, int[] payload, int lb, int ub)
+    {
+        IntroSort.sort(a, payload, lb, ub, IntroSort.maxDepth(ub - lb + 1));
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload, with at most depth levels of partitioning left.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param depth Levels of partitioning left before using heapsort.
+     */
+    public static void sort(long[] a, int[] payload, int lb, int ub,
+                            int depth)
+    {
+        if(ub - lb < IntroSort.INSERTION_SORT_THRESHOLD)
+        {
+            IntroSort.insertionSort(a, payload, lb, ub);
+            return;
+        }
+        if(depth == 0)
+        {
+            IntroSort.heapSort(a, payload, lb, ub);
+            return;
+        }
+        long bounds = IntroSort.partition(a, payload, lb, ub);
+        int lt = (int) (bounds >>> 32);
+        int gt = (int) bounds;
+        long middle = IntroSort.middle(a, payload, lb, ub, lt, gt);
+        IntroSort.sort(a, payload, lb, lt - 1, depth - 1);
+        IntroSort.sort(a, payload, (int) (middle >>> 32), (int) middle,
+                depth - 1);
+        IntroSort.sort(a, payload, gt + 1, ub, depth - 1);
+    }
+
+    /**
+     * Finds the range of the middle partition (lt...gt) left by partition
+     * that still has to be sorted: none if both pivots are equal, and if the
+     * middle holds more than half of a[lb...ub], only the keys strictly
+     * between the pivots, once the keys equal to them are moved to its ends.
+     * Otherwise few distinct keys, e.g. two, would only lose the two pivots
+     * on each level.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index of the partitioned range.
+     * @param ub Upper-bound index of the partitioned range.
+     * @param lt Final index of pivot p1.
+     * @param gt Final index of pivot p2.
+     * @return Lower and upper bound indices of the range to sort, packed as
+     * (lower << 32) | upper, the upper one being smaller if it is empty.
+     */
+    public static long middle(long[] a, int[] payload, int lb, int ub, int lt,
+                              int gt)
+    {
+        long p1 = a[lt];
+        long p2 = a[gt];
+        if(p1 == p2)
+        {
+            return ((long) (lt + 1) << 32) | lt;
+        }
+        int first = lt + 1;
+        int last = gt - 1;
+        if(last - first > (ub - lb) / 2)
+        {
+            int i = first;
+            while(i <= last)
+            {
+                if(a[i] == p1)
+                {
+                    IntroSort.swap(a, payload, i++, first++);
+                }
+                else if(a[i] == p2)
+                {
+                    IntroSort.swap(a, payload, i, last--);
+                }
+                else
+                {
+                    i++;
+                }
+            }
+        }
+        return ((long) first << 32) | last;
+    }
+
+    /**
+     * Splits a in [lb...ub] in three by two pivots p1 <= p2 taken from its
+     * tertiles, as partition(int[], int[], int, int) does.
+     * <b>Pre: </b>ub - lb >= 4.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return Final indices lt of p1 and gt of p2, packed as
+     * (lt << 32) | gt.
+     */
+    public static long partition(long[] a, int[] payload, int lb, int ub)
+    {
+        int third = (ub - lb) / 3;
+        IntroSort.swap(a, payload, lb, lb + third);
+        IntroSort.swap(a, payload, ub, ub - third);
+        if(a[lb] > a[ub])
+        {
+            IntroSort.swap(a, payload, lb, ub);
+        }
+        long p1 = a[lb];
+        long p2 = a[ub];
+
+        int lt = lb + 1;
+        int gt = ub - 1;
+        int i = lb + 1;
+        while(i <= gt)
+        {
+            if(a[i] < p1)
+            {
+                IntroSort.swap(a, payload, i++, lt++);
+            }
+            else if(a[i] > p2)
+            {
+                while(a[gt] > p2 && i < gt)
+                {
+                    gt--;
+                }
+                IntroSort.swap(a, payload, i, gt--);
+                if(a[i] < p1)
+                {
+                    IntroSort.swap(a, payload, i, lt++);
+                }
+                i++;
+            }
+            else
+            {
+                i++;
+            }
+        }
+
+        IntroSort.swap(a, payload, lb, --lt);
+        IntroSort.swap(a, payload, ub, ++gt);
+        return ((long) lt << 32) | gt;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts a in [lb...ub] by insertion sort.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    private static void insertionSort(int[] a, int[] payload, int lb, int ub)
+    {
+        for(int i = lb + 1; i <= ub; i++)
+        {
+            int key = a[i];
+            int value = (payload != null) ? payload[i] : 0;
+            int j = i - 1;
+            while(j >= lb && a[j] > key)
+            {
+                a[j + 1] = a[j];
+                if(payload != null)
+                {
+                    payload[j + 1] = payload[j];
+                }
+                j--;
+            }
+            a[j + 1] = key;
+            if(payload != null)
+            {
+                payload[j + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Sorts a in [lb...ub] by heapsort, building a max-heap in place.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    private static void heapSort(int[] a, int[] payload, int lb, int ub)
+    {
+        int n = ub - lb + 1;
+        for(int i = n / 2 - 1; i >= 0; i--)
+        {
+            IntroSort.siftDown(a, payload, lb, i, n);
+        }
+        for(int size = n - 1; size > 0; size--)
+        {
+            IntroSort.swap(a, payload, lb, lb + size);
+            IntroSort.siftDown(a, payload, lb, 0, size);
+        }
+    }
+
+    /**
+     * Moves element i of the max-heap stored in a[lb...lb + size) down until
+     * the heap order is restored.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Index of the root of the heap.
+     * @param i Index in the heap of the element to sift down.
+     * @param size Number of elements of the heap.
+     */
+    private static void siftDown(int[] a, int[] payload, int lb, int i,
+                                 int size)
+    {
+        while(2 * i + 1 < size)
+        {
+            int child = 2 * i + 1;
+            if(child + 1 < size && a[lb + child + 1] > a[lb + child])
+            {
+                child++;
+            }
+            if(a[lb + i] >= a[lb + child])
+            {
+                return;
+            }
+            IntroSort.swap(a, payload, lb + i, lb + child);
+            i = child;
+        }
+    }
+
+    /**
+     * Swaps the elements at indices i and j of a and of the payload.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param i Index of element to swap.
+     * @param j Index of element to swap.
+     */
+    private static void swap(int[] a, int[] payload, int i, int j)
+    {
+        int aux = a[i];
+        a[i] = a[j];
+        a[j] = aux;
+        if(payload != null)
+        {
+            aux = payload[i];
+            payload[i] = payload[j];
+            payload[j] = aux;
+        }
+    }
+
+    /**
+     * Sorts a in [lb...ub] by insertion sort.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    private static void insertionSort(long[] a, int[] payload, int lb,
+                                      int ub)
+    {
+        for(int i = lb + 1; i <= ub; i++)
+        {
+            long key = a[i];
+            int value = (payload != null) ? payload[i] : 0;
+            int j = i - 1;
+            while(j >= lb && a[j] > key)
+            {
+                a[j + 1] = a[j];
+                if(payload != null)
+                {
+                    payload[j + 1] = payload[j];
+                }
+                j--;
+            }
+            a[j + 1] = key;
+            if(payload != null)
+            {
+                payload[j + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Sorts a in [lb...ub] by heapsort, building a max-heap in place.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    private static void heapSort(long[] a, int[] payload, int lb, int ub)
+    {
+        int n = ub - lb + 1;
+        for(int i = n / 2 - 1; i >= 0; i--)
+        {
+            IntroSort.siftDown(a, payload, lb, i, n);
+        }
+        for(int size = n - 1; size > 0; size--)
+        {
+            IntroSort.swap(a, payload, lb, lb + size);
+            IntroSort.siftDown(a, payload, lb, 0, size);
+        }
+    }
+
+    /**
+     * Moves element i of the max-heap stored in a[lb...lb + size) down until
+     * the heap order is restored.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Index of the root of the heap.
+     * @param i Index in the heap of the element to sift down.
+     * @param size Number of elements of the heap.
+     */
+    private static void siftDown(long[] a, int[] payload, int lb, int i,
+                                 int size)
+    {
+        while(2 * i + 1 < size)
+        {
+            int child = 2 * i + 1;
+            if(child + 1 < size && a[lb + child + 1] > a[lb + child])
+            {
+                child++;
+            }
+            if(a[lb + i] >= a[lb + child])
+            {
+                return;
+            }
+            IntroSort.swap(a, payload, lb + i, lb + child);
+            i = child;
+        }
+    }
+
+    /**
+     * Swaps the elements at indices i and j of a and of the payload.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param i Index of element to swap.
+     * @param j Index of element to swap.
+     */
+    private static void swap(long[] a, int[] payload, int i, int j)
+    {
+        long aux = a[i];
+        a[i] = a[j];
+        a[j] = aux;
+        if(payload != null)
+        {
+            int value = payload[i];
+            payload[i] = payload[j];
+            payload[j] = value;
+        }
+    }
+}
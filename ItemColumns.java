@@ -0,0 +1,425 @@
+/**
+ * $Id: ItemColumns.java, v1.0 19/10/26 08:15 PM oscarfabra Exp $
+ * {@code ItemColumns} Stores the items of a knapsack problem column by
+ * column.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ItemColumns is a class that stores the items of a knapsack problem in
+ * three parallel int arrays of ids, values and weights instead of a list of
+ * Item objects, so that dynamic programming loops read contiguous primitive
+ * memory. Items can be loaded straight from a text file of (value, weight)
+ * lines or from a binary file, or copied from a list of items, in which case
+ * getItem returns the original objects.
+ * @see Item
+ * @see Knapsack
+ */
+public class ItemColumns
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Size of the buffer used to read text files
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Number of items
+    private int n;
+
+    // Id, value and weight of each item
+    private int [] ids;
+    private int [] values;
+    private int [] weights;
+
+    // Items the columns were copied from, null if they were loaded
+    private List<Item> source;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new empty ItemColumns with the given initial capacity.
+     * @param capacity Initial capacity.
+     */
+    public ItemColumns(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        this.ids = new int[capacity];
+        this.values = new int[capacity];
+        this.weights = new int[capacity];
+    }
+
+    /**
+     * Creates a new ItemColumns with the first n items of the given list.
+     * @param items List of items.
+     * @param n Number of items.
+     */
+    public ItemColumns(List<Item> items, int n)
+    {
+        this(n);
+        for(int i = 0; i < n; i++)
+        {
+            Item item = items.get(i);
+            this.add(item.getId(), item.getValue(), item.getWeight());
+        }
+        this.source = items;
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Reads the items of the given text file, parsing the digits straight
+     * from a byte buffer filled BUFFER_SIZE bytes at a time, without
+     * creating any string. Ids are assigned from 1 in order of appearance.
+     * <b>Pre:</b> Each line of the file has the form:
+     * [value_i] [weight_i] for each i in {1...n}
+     * @param fileName Path of the file.
+     * @return The items of the file.
+     * @throws IOException If the file can't be read.
+     */
+    public static ItemColumns readText(String fileName) throws IOException
+    {
+        ItemColumns items = new ItemColumns(1024);
+        InputStream in = new FileInputStream(fileName);
+        try
+        {
+            // Reads the numbers in pairs, skipping anything between them
+            byte [] buffer = new byte[ItemColumns.BUFFER_SIZE];
+            int length = 0;
+            int position = 0;
+            int [] pair = new int[2];
+            int count = 0;
+            int number = 0;
+            boolean negative = false;
+            boolean inNumber = false;
+            int c;
+            while(true)
+            {
+                if(position == length)
+                {
+                    length = Math.max(in.read(buffer), 0);
+                    position = 0;
+                }
+                c = (length == 0) ? -1 : buffer[position++] & 0xFF;
+                if(c >= '0' && c <= '9')
+                {
+                    number = number * 10 + (c - '0');
+                    inNumber = true;
+                    continue;
+                }
+                if(inNumber)
+                {
+                    pair[count++] = negative ? -number : number;
+                    if(count == 2)
+                    {
+                        items.add(items.n + 1, pair[0], pair[1]);
+                        count = 0;
+                    }
+                }
+                if(c == -1)
+                {
+                    break;
+                }
+                negative = c == '-';
+                number = 0;
+                inNumber = false;
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        return items;
+    }
+
+    /**
+     * Reads the items of the given binary file, as written by writeBinary,
+     * by mapping the file in memory and copying each column in bulk.
+     * @param fileName Path of the file.
+     * @return The items of the file.
+     * @throws IOException If the file can't be read.
+     */
+    public static ItemColumns readBinary(String fileName) throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try
+        {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            IntBuffer ints = buffer.asIntBuffer();
+            int n = ints.get();
+            ItemColumns items = new ItemColumns(n);
+            ints.get(items.ids, 0, n);
+            ints.get(items.values, 0, n);
+            ints.get(items.weights, 0, n);
+            items.n = n;
+            return items;
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Adds an item at the end of the columns.
+     * @param id Id of the item.
+     * @param value Value of the item.
+     * @param weight Weight of the item.
+     */
+    public void add(int id, int value, int weight)
+    {
+        if(this.n == this.ids.length)
+        {
+            int capacity = 2 * this.n;
+            this.ids = Arrays.copyOf(this.ids, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.weights = Arrays.copyOf(this.weights, capacity);
+        }
+        this.ids[this.n] = id;
+        this.values[this.n] = value;
+        this.weights[this.n++] = weight;
+    }
+
+    /**
+     * Writes the items to the given binary file: the number of items and
+     * then the column of ids, the column of values and the column of
+     * weights, as big-endian ints.
+     * @param fileName Path of the file.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeBinary(String fileName) throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try
+        {
+            FileChannel channel = file.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(4 * (3 * this.n + 1));
+            IntBuffer ints = buffer.asIntBuffer();
+            ints.put(this.n);
+            ints.put(this.ids, 0, this.n);
+            ints.put(this.values, 0, this.n);
+            ints.put(this.weights, 0, this.n);
+            file.setLength(0);
+            while(buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    /**
+     * Gets the number of items.
+     * @return Number of items.
+     */
+    public int size()
+    {
+        return this.n;
+    }
+
+    /**
+     * Gets the id of item i.
+     * @param i Index of the item, starting from 0.
+     * @return Id of the item.
+     */
+    public int getId(int i)
+    {
+        return this.ids[i];
+    }
+
+    /**
+     * Gets the value of item i.
+     * @param i Index of the item, starting from 0.
+     * @return Value of the item.
+     */
+    public int getValue(int i)
+    {
+        return this.values[i];
+    }
+
+    /**
+     * Gets the weight of item i.
+     * @param i Index of the item, starting from 0.
+     * @return Weight of the item.
+     */
+    public int getWeight(int i)
+    {
+        return this.weights[i];
+    }
+
+    /**
+     * Gets the array of values, of which only the first size() are items.
+     * The array is shared with these columns and shouldn't be modified.
+     * @return Array of values.
+     */
+    public int [] getValues()
+    {
+        return this.values;
+    }
+
+    /**
+     * Gets the array of weights, of which only the first size() are items.
+     * The array is shared with these columns and shouldn't be modified.
+     * @return Array of weights.
+     */
+    public int [] getWeights()
+    {
+        return this.weights;
+    }
+
+    /**
+     * Gets item i as an Item: the original object if the columns were copied
+     * from a list, a new one otherwise.
+     * @param i Index of the item, starting from 0.
+     * @return Item i.
+     */
+    public Item getItem(int i)
+    {
+        if(this.source != null && i < this.source.size())
+        {
+            return this.source.get(i);
+        }
+        return new Item(this.ids[i], this.values[i], this.weights[i]);
+    }
+
+    /**
+     * Gets every item as an Item.
+     * @return List of the items.
+     */
+    public List<Item> toList()
+    {
+        List<Item> items = new ArrayList<Item>(this.n);
+        for(int i = 0; i < this.n; i++)
+        {
+            items.add(this.getItem(i));
+        }
+        return items;
+    }
+
+    /**
+     * Finds the order of the items by decreasing value/weight ratio, items
+     * of weight 0 first and items of equal ratio in order of index; O(n log n)
+     * algorithm. Keys packing the float bits of each ratio (which order as
+     * the ratios themselves since these aren't negative) with the index are
+     * sorted first. Each ratio is divided in double and then rounded to
+     * float, so a bigger ratio never gets a smaller float; but since floats
+     * can't tell very close ratios apart, each run of equal floats is then
+     * merge sorted comparing value_i * weight_j against value_j * weight_i
+     * exactly. The columns aren't modified.
+     * @return Array with the index of each item in order.
+     */
+    public int [] ratioOrder()
+    {
+        // Reversed index in the lower bits so that equal keys keep their
+        // order once the sorted keys are read backwards
+        long [] keys = new long[this.n];
+        for(int i = 0; i < this.n; i++)
+        {
+            float ratio = (this.weights[i] == 0) ? Float.POSITIVE_INFINITY :
+                    (float) ((double) this.values[i] / this.weights[i]);
+            keys[i] = ((long) Float.floatToIntBits(ratio) << 32)
+                    | (this.n - 1 - i);
+        }
+        Arrays.sort(keys);
+        int [] order = new int[this.n];
+        for(int j = 0; j < this.n; j++)
+        {
+            order[j] = this.n - 1 - (int) keys[this.n - 1 - j];
+        }
+
+        // Sorts exactly each run of ratios too close for floats
+        int [] buffer = null;
+        int start = 0;
+        for(int j = 1; j <= this.n; j++)
+        {
+            if(j < this.n && (keys[this.n - 1 - j] >>> 32)
+                    == (keys[this.n - j] >>> 32))
+            {
+                continue;
+            }
+            if(j - start > 1)
+            {
+                if(buffer == null)
+                {
+                    buffer = new int[this.n];
+                }
+                this.sortByRatio(order, start, j, buffer);
+            }
+            start = j;
+        }
+        return order;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts the indices of order in [lb...ub) by decreasing value/weight
+     * ratio, comparing the ratios exactly by cross multiplication, with a
+     * stable merge sort.
+     * @param order Array of indices of items.
+     * @param lb Index of the first index to sort.
+     * @param ub Index after the last index to sort.
+     * @param buffer Array of at least ub elements to merge in.
+     */
+    private void sortByRatio(int[] order, int lb, int ub, int[] buffer)
+    {
+        if(ub - lb < 2)
+        {
+            return;
+        }
+        int mid = (lb + ub) >>> 1;
+        this.sortByRatio(order, lb, mid, buffer);
+        this.sortByRatio(order, mid, ub, buffer);
+        System.arraycopy(order, lb, buffer, lb, ub - lb);
+        int i = lb;
+        int j = mid;
+        for(int k = lb; k < ub; k++)
+        {
+            // Takes from the right half only if its ratio is strictly bigger
+            if(i < mid && (j >= ub || (long) this.values[buffer[i]]
+                    * this.weights[buffer[j]] >= (long) this.values[buffer[j]]
+                    * this.weights[buffer[i]]))
+            {
+                order[k] = buffer[i++];
+            }
+            else
+            {
+                order[k] = buffer[j++];
+            }
+        }
+    }
+}
@@ -8,7 +8,10 @@
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Knapsack is a class that solves the knapsack problem defined as follows:
@@ -31,6 +34,18 @@ public class Knapsack
     // Sets the biggest weight possible for the knapsack
     public static final int MAX_WEIGHT = 1000000;
 
+    // Number of capacities of a row that each parallel task fills out
+    public static final int PARALLEL_CHUNK = 1 << 15;
+
+    // Largest number of decision bits kept by the dynamic programming
+    // heuristic to recover the selected items (128 MB)
+    public static final long MAX_DECISION_BITS = 1L << 30;
+
+    // Largest number of items, and smallest knapsack size, for which exact
+    // instances are solved by branch and bound instead of dynamic programming
+    public static final int BRANCH_AND_BOUND_MAX_N = 200;
+    public static final int BRANCH_AND_BOUND_MIN_W = 1000000;
+
     //-------------------------------------------------------------------------
     // ATTRIBUTES
     //-------------------------------------------------------------------------
@@ -81,22 +96,96 @@ public class Knapsack
      * @return Value of the optimal solution.
      */
     public static int solve(List<Item> items, int W, int n, float e)
+    {
+        return Knapsack.solve(new ItemColumns(items, n), W, e);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem and adds the selected
+     * items to the given list instead of the selectedItems class list, so
+     * that several instances can be solved at the same time.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @param e Error margin acceptable for solution, e in [0...1.0)
+     * @param selected List in which to add the selected items.
+     * @return Value of the optimal solution.
+     */
+    public static int solve(List<Item> items, int W, int n, float e,
+                            List<Item> selected)
+    {
+        return Knapsack.solve(new ItemColumns(items, n), W, e, selected,
+                null);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem, stored column by
+     * column.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param e Error margin acceptable for solution, e in [0...1.0)
+     * @return Value of the optimal solution.
+     */
+    public static int solve(ItemColumns items, int W, float e)
+    {
+        Knapsack.selectedItems = new ArrayList<Item>(items.size() / 2);
+        return Knapsack.solve(items, W, e, Knapsack.selectedItems, null);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem, stored column by
+     * column, and adds the selected items to the given list instead of the
+     * selectedItems class list.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param e Error margin acceptable for solution, e in [0...1.0)
+     * @param selected List in which to add the selected items.
+     * @return Value of the optimal solution.
+     */
+    public static int solve(ItemColumns items, int W, float e,
+                            List<Item> selected)
+    {
+        return Knapsack.solve(items, W, e, selected, null);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem, adds the selected
+     * items to the given list and, if the instance is small enough for the
+     * straightforward table, fills it out in the given array.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param e Error margin acceptable for solution, e in [0...1.0)
+     * @param selected List in which to add the selected items.
+     * @param table Array of at least tableSize(W, n) values to use as table,
+     *              null to allocate a new one.
+     * @return Value of the optimal solution.
+     * @see KnapsackBatch
+     */
+    static int solve(ItemColumns items, int W, float e, List<Item> selected,
+                     int[] table)
     {
         // If no error margin is allowed, use the (trivial) dynamic programming
         // approach
+        int n = items.size();
         int value = 0;
         if(e == 0.0)
         {
             // Determines whether to solve the problem using a straightforward
             // implementation or one that's optimized for big numbers
-            long compare = Long.valueOf(W + 1) * Long.valueOf(n + 1);
-            if(Knapsack.THRESHOLD >= compare)
+            if(Knapsack.THRESHOLD >= Knapsack.tableSize(W, n))
+            {
+                value = Knapsack.solveStraightforward(items, W, selected,
+                        table);
+            }
+            else if(n <= Knapsack.BRANCH_AND_BOUND_MAX_N
+                    && W >= Knapsack.BRANCH_AND_BOUND_MIN_W)
             {
-                value = Knapsack.solveStraightforward(items, W, n);
+                // Too big a W for any table, but few enough items to search
+                value = Knapsack.solveByBranchAndBound(items, W, selected);
             }
             else
             {
-                value = Knapsack.solveForBigData(items, W, n);
+                value = Knapsack.solveForBigData(items, W, selected);
             }
         }
         else
@@ -105,23 +194,23 @@ public class Knapsack
             // a dynamic programming heuristic based on the given e.
 
             // Finds w_max, i.e., the weight of the heaviest item
-            int i = 0;
+            int [] weights = items.getWeights();
             int maxWeight = 0;
-            for(Item item : items)
+            for(int i = 0; i < n; i++)
             {
-                if(item.getWeight() > maxWeight)
+                if(weights[i] > maxWeight)
                 {
-                    maxWeight = item.getWeight();
+                    maxWeight = weights[i];
                 }
             }
             // If heaviest item is at most e * W, use a greedy heuristic
             if(maxWeight <= e * W)
             {
-                value = Knapsack.solveGreedyHeuristic(items, W, n);
+                value = Knapsack.solveGreedyHeuristic(items, W, selected);
             }
             else    // Otherwise, use the dynamic programming heuristic
             {
-                value = Knapsack.solveDPHeuristic(items, W, n, e);
+                value = Knapsack.solveDPHeuristic(items, W, e, selected);
             }
         }
 
@@ -129,6 +218,290 @@ public class Knapsack
         return value;
     }
 
+    /**
+     * Determines whether some subset of the given items weighs exactly W.
+     * @param items List of items.
+     * @param W Exact weight to look for.
+     * @param n Number of items.
+     * @return true if some subset of the items weighs exactly W.
+     * @see #solveSubsetSum(ItemColumns, int)
+     */
+    public static boolean solveSubsetSum(List<Item> items, int W, int n)
+    {
+        return Knapsack.solveSubsetSum(new ItemColumns(items, n), W);
+    }
+
+    /**
+     * Determines whether some subset of the given items weighs exactly W,
+     * using a bitset dynamic programming that updates 64 capacities per
+     * word operation; O(n * W / 64) algorithm.
+     * @param items Columns of items.
+     * @param W Exact weight to look for.
+     * @return true if some subset of the items weighs exactly W.
+     */
+    public static boolean solveSubsetSum(ItemColumns items, int W)
+    {
+        long [] reachable = Knapsack.findReachableWeights(items, W);
+        return (reachable[W >>> 6] & (1L << W)) != 0;
+    }
+
+    /**
+     * Finds the biggest total weight not over W achievable by a subset of
+     * the given items.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @return Biggest total weight <= W of a subset of the items.
+     * @see #solveMaxWeight(ItemColumns, int)
+     */
+    public static int solveMaxWeight(List<Item> items, int W, int n)
+    {
+        return Knapsack.solveMaxWeight(new ItemColumns(items, n), W);
+    }
+
+    /**
+     * Finds the biggest total weight not over W achievable by a subset of
+     * the given items, i.e. the optimal value when each value equals its
+     * weight, using the same bitset dynamic programming as solveSubsetSum;
+     * O(n * W / 64) algorithm.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @return Biggest total weight <= W of a subset of the items.
+     */
+    public static int solveMaxWeight(ItemColumns items, int W)
+    {
+        long [] reachable = Knapsack.findReachableWeights(items, W);
+        for(int w = reachable.length - 1; w >= 0; w--)
+        {
+            if(reachable[w] != 0)
+            {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(reachable[w]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem exactly, filling out
+     * the rows of the table on the given fork-join pool.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @param pool Pool on which to fill out the rows.
+     * @return Value of the optimal solution.
+     * @see #solveParallel(ItemColumns, int, ForkJoinPool)
+     */
+    public static int solveParallel(List<Item> items, int W, int n,
+                                    ForkJoinPool pool)
+    {
+        return Knapsack.solveParallel(new ItemColumns(items, n), W, pool);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem exactly using the
+     * common fork-join pool.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @return Value of the optimal solution.
+     * @see #solveParallel(ItemColumns, int, ForkJoinPool)
+     */
+    public static int solveParallel(List<Item> items, int W, int n)
+    {
+        return Knapsack.solveParallel(items, W, n, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem exactly as
+     * solveForBigData does, but filling out each row of the table in slices
+     * of PARALLEL_CHUNK capacities on the given fork-join pool, and updates
+     * the selectedItems class list for later retrieval. Since each row only
+     * depends on the previous one, two rows are kept and swapped after each
+     * item.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param pool Pool on which to fill out the rows.
+     * @return Value of the optimal solution.
+     */
+    public static int solveParallel(ItemColumns items, int W,
+                                    ForkJoinPool pool)
+    {
+        System.out.println("Finding optimal items by divide and conquer on " +
+                pool.getParallelism() + " threads...");
+        Knapsack.selectedItems = new ArrayList<Item>(items.size() / 2);
+        int value = Knapsack.findOptimalItems(items, 0, items.size(), W,
+                Knapsack.selectedItems, pool);
+        System.out.println("...optimal items found.");
+        return value;
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem exactly by merging
+     * Pareto fronts.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @return Value of the optimal solution.
+     * @see #solveByParetoFront(ItemColumns, int)
+     */
+    public static int solveByParetoFront(List<Item> items, int W, int n)
+    {
+        return Knapsack.solveByParetoFront(new ItemColumns(items, n), W);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem exactly keeping, item
+     * by item, only the non-dominated (weight, value) pairs of the subsets of
+     * the items seen so far (Nemhauser-Ullmann), and updates the
+     * selectedItems class list for later retrieval. Each front lives in two
+     * sorted primitive arrays and the next one is the merge of the current
+     * front with itself shifted by the new item, so time and memory follow
+     * the size of the fronts instead of W.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @return Value of the optimal solution.
+     */
+    public static int solveByParetoFront(ItemColumns items, int W)
+    {
+        int n = items.size();
+        int [] itemValues = items.getValues();
+        int [] itemWeights = items.getWeights();
+
+        // Starts with the front of the empty subset, weight 0 and value 0
+        int [] weights = new int[] {0};
+        int [] values = new int[] {0};
+        int size = 1;
+
+        // For each item and pair of its front, keeps the index of the pair
+        // it comes from in the previous front, times 2, plus 1 if the item
+        // was added to it
+        List<int[]> origins = new ArrayList<int[]>(n);
+
+        System.out.println("Merging Pareto fronts...");
+        for(int i = 0; i < n; i++)
+        {
+            int value = itemValues[i];
+            int weight = itemWeights[i];
+            int [] newWeights = new int[2 * size];
+            int [] newValues = new int[2 * size];
+            int [] origin = new int[2 * size];
+            int newSize = 0;
+
+            // Merges the front (a) with the front shifted by the item (b) in
+            // increasing order of weight, dropping every dominated pair
+            int a = 0;
+            int b = 0;
+            while(a < size || b < size)
+            {
+                boolean bFits = b < size && weights[b] <= W - weight;
+                int pairWeight;
+                int pairValue;
+                int pairOrigin;
+                if(a < size && (!bFits || weights[a] <= weights[b] + weight))
+                {
+                    pairWeight = weights[a];
+                    pairValue = values[a];
+                    pairOrigin = 2 * a++;
+                }
+                else if(bFits)
+                {
+                    pairWeight = weights[b] + weight;
+                    pairValue = values[b] + value;
+                    pairOrigin = 2 * b++ + 1;
+                }
+                else
+                {
+                    break;  // Only pairs that don't fit are left
+                }
+                if(newSize > 0 && pairValue <= newValues[newSize - 1])
+                {
+                    continue;   // Dominated by a lighter or equal pair
+                }
+                if(newSize > 0 && pairWeight == newWeights[newSize - 1])
+                {
+                    newSize--;  // Dominates the last pair kept
+                }
+                newWeights[newSize] = pairWeight;
+                newValues[newSize] = pairValue;
+                origin[newSize++] = pairOrigin;
+            }
+            weights = newWeights;
+            values = newValues;
+            size = newSize;
+            origins.add(Arrays.copyOf(origin, size));
+
+            // Message in standard output for logging purposes
+            if((i + 1) % 100 == 0)
+            {
+                System.out.println("-- [" + (i + 1) + " items merged, front " +
+                        "of " + size + " pairs, so far.]");
+            }
+        }
+        System.out.println("...fronts merged.");
+
+        // The last pair has the biggest value; walks its origins backwards to
+        // find the selected items
+        Knapsack.selectedItems = new ArrayList<Item>(n / 2);
+        int pair = size - 1;
+        for(int i = n - 1; i >= 0; i--)
+        {
+            int pairOrigin = origins.get(i)[pair];
+            if((pairOrigin & 1) == 1)
+            {
+                Knapsack.selectedItems.add(items.getItem(i));
+            }
+            pair = pairOrigin >>> 1;
+        }
+        return values[size - 1];
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem with the dynamic
+     * programming heuristic.
+     * @param items List of items.
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @param e Error margin acceptable for solution, e in (0...1.0)
+     * @param selected List in which to add the selected items.
+     * @return Value of the selected items.
+     * @see #solveApproximately(ItemColumns, int, float, List)
+     */
+    public static int solveApproximately(List<Item> items, int W, int n,
+                                         float e, List<Item> selected)
+    {
+        return Knapsack.solveDPHeuristic(new ItemColumns(items, n), W, e,
+                selected);
+    }
+
+    /**
+     * Solves the given instance of the knapsack problem with the dynamic
+     * programming heuristic whatever the weights of the items, so that the
+     * value of the selected items is at least (1 - e) times the optimal
+     * value, and adds them to the given list.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param e Error margin acceptable for solution, e in (0...1.0)
+     * @param selected List in which to add the selected items.
+     * @return Value of the selected items.
+     */
+    public static int solveApproximately(ItemColumns items, int W, float e,
+                                         List<Item> selected)
+    {
+        return Knapsack.solveDPHeuristic(items, W, e, selected);
+    }
+
+    /**
+     * Gets the number of values of the straightforward table for the given
+     * instance, (W + 1) x (n + 1).
+     * @param W Knapsack size.
+     * @param n Number of items.
+     * @return Number of values of the table.
+     */
+    public static long tableSize(int W, int n)
+    {
+        return (long) (W + 1) * (n + 1);
+    }
+
     /**
      * Returns the list of the selected items; null if empty.
      * @return List of selected items.
@@ -144,132 +517,292 @@ public class Knapsack
 
     /**
      * Solves the knapsack problem using a straightforward (exact) dynamic
-     * programming implementation and updates the selectedItems class list for
-     * later retrieval.
-     * @param items Array of items.
+     * programming implementation and adds the selected items to the given
+     * list. The table is stored row by row in a flat array, row i holding the
+     * W + 1 best values with the first i items, so that each row is read and
+     * written sequentially.
+     * @param items Columns of items.
      * @param W Knapsack size.
-     * @param n Number of items.
+     * @param selected List in which to add the selected items.
+     * @param a Array of at least (W + 1) x (n + 1) values to use as table,
+     *          null to allocate a new one.
      * @return Value of the optimal solution.
      */
-    private static int solveStraightforward(List<Item> items, int W, int n)
+    private static int solveStraightforward(ItemColumns items, int W,
+                                            List<Item> selected, int[] a)
     {
-        // Initializes matrix and its first column
-        int [][] a = new int[W + 1][n + 1];
-        for(int x = 0; x <= W; x++)
+        // Initializes matrix and its first row
+        int n = items.size();
+        int [] values = items.getValues();
+        int [] weights = items.getWeights();
+        int columns = W + 1;
+        if(a == null)
         {
-            a[x][0] = 0;
+            a = new int[(int) Knapsack.tableSize(W, n)];
         }
+        Arrays.fill(a, 0, columns, 0);
 
         // Walks through the table filling up the corresponding values
         for(int i = 1; i <= n; i++)
         {
+            int value = values[i - 1];
+            int weight = weights[i - 1];
+            int previous = (i - 1) * columns;
+            int current = i * columns;
             for(int x = 0; x <= W; x++)
             {
-                int value = items.get(i - 1).getValue();
-                int weight = items.get(i - 1).getWeight();
-                int firstCase = a[x][i - 1];
-                int secondCase = (x >= weight)? a[x - weight][i - 1] + value :
-                        firstCase;
-                a[x][i] = Math.max(firstCase, secondCase);
+                int firstCase = a[previous + x];
+                int secondCase = (x >= weight)?
+                        a[previous + x - weight] + value : firstCase;
+                a[current + x] = Math.max(firstCase, secondCase);
             }
         }
 
         // Trace backwards to get the solution from the completed table
         int x = W;
-        Knapsack.selectedItems = new ArrayList<Item>(n / 2);
         for(int i = n; i > 0; i--)
         {
             // If conditions met, then item was selected
-            int value = items.get(i - 1).getValue();
-            int weight = items.get(i - 1).getWeight();
-            if(x >= weight && ((a[x][i] - value) == a[x - weight][i - 1]))
+            int value = values[i - 1];
+            int weight = weights[i - 1];
+            if(x >= weight && ((a[i * columns + x] - value)
+                    == a[(i - 1) * columns + x - weight]))
             {
-                Knapsack.selectedItems.add(items.get(i - 1));
+                selected.add(items.getItem(i - 1));
                 x -= weight;
             }
         }
 
         // Returns the value of the optimal solution
-        return a[W][n];
+        return a[n * columns + W];
     }
 
     /**
-     * Solves the knapsack problem using an implementation optimized for big n.
-     * @param items List of items.
+     * Finds the total weights in [0...W] achievable by subsets of the given
+     * items, as a bitset in which bit x is set iff weight x is achievable.
+     * Each item shifts the whole bitset by its weight and ORs it into
+     * itself, one word of 64 capacities at a time. Words are walked from the
+     * highest down so that each one reads only words not yet updated.
+     * @param items Columns of items.
      * @param W Knapsack size.
-     * @param n Number of items.
-     * @return Value of the optimal solution.
+     * @return Bitset of the achievable weights, (W / 64) + 1 words long.
      */
-    private static int solveForBigData(List<Item> items, int W, int n)
+    private static long [] findReachableWeights(ItemColumns items, int W)
     {
-        // Initializes appropriate data structure and its first column
-        System.out.print("Initializing 2-D array...");
-        List<Integer>[] a = (ArrayList<Integer>[])new ArrayList[W + 1];
-        for(int x = 0; x <= W; x++)
+        int n = items.size();
+        int [] weights = items.getWeights();
+        int words = (W >>> 6) + 1;
+        long [] reachable = new long[words];
+        long lastWordMask = -1L >>> (63 - (W & 63));
+        reachable[0] = 1L;
+        for(int i = 0; i < n; i++)
         {
-            a[x] = new ArrayList<Integer>(2);
-            a[x].add(0);
-            a[x].add(0);
+            int weight = weights[i];
+            if(weight > W)
+            {
+                continue;
+            }
+            int wordShift = weight >>> 6;
+            int bitShift = weight & 63;
+            if(bitShift == 0)
+            {
+                for(int w = words - 1; w >= wordShift; w--)
+                {
+                    reachable[w] |= reachable[w - wordShift];
+                }
+            }
+            else
+            {
+                int carryShift = 64 - bitShift;
+                for(int w = words - 1; w > wordShift; w--)
+                {
+                    reachable[w] |= (reachable[w - wordShift] << bitShift)
+                            | (reachable[w - wordShift - 1] >>> carryShift);
+                }
+                reachable[wordShift] |= reachable[0] << bitShift;
+            }
+            // Drops the weights beyond W of the last word
+            reachable[words - 1] &= lastWordMask;
         }
-        System.out.println("done.");
+        return reachable;
+    }
 
-        // Walks through the table filling out the corresponding values, uses
-        // memoization; it only keeps the past column (at index 0) and the one
-        // that is computing (at index 1), to avoid memory issues
-        System.out.println("Filling out table...");
-        for(int i = 1; i <= n; i++)
+    /**
+     * Solves the knapsack problem exactly by branch and bound, and adds the
+     * selected items to the given list.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param selected List in which to add the selected items.
+     * @return Value of the optimal solution.
+     * @see BranchAndBound
+     */
+    private static int solveByBranchAndBound(ItemColumns items, int W,
+                                             List<Item> selected)
+    {
+        System.out.println("Solving by branch and bound...");
+        BranchAndBound search = new BranchAndBound(items, W);
+        int value = search.solve();
+        selected.addAll(search.getSelectedItems());
+        System.out.println("...optimal solution found.");
+        return value;
+    }
+
+    /**
+     * Solves the knapsack problem using an implementation optimized for big n,
+     * and adds the selected items to the given list. Instead
+     * of the full (W + 1) x (n + 1) table it only keeps rows of W + 1 values,
+     * and recovers the optimal items by divide and conquer (as Hirschberg's
+     * algorithm): the best way to split the capacity between both halves of
+     * the items is found from one row of each half, and each half is then
+     * solved with its share of the capacity. Takes O(W) memory and about
+     * twice the time of filling out the table.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @param selected List in which to add the selected items.
+     * @return Value of the optimal solution.
+     */
+    private static int solveForBigData(ItemColumns items, int W,
+                                       List<Item> selected)
+    {
+        System.out.println("Finding optimal items by divide and conquer...");
+        int value = Knapsack.findOptimalItems(items, 0, items.size(), W,
+                selected, null);
+        System.out.println("...optimal items found.");
+
+        // Returns the value of the optimal solution
+        return value;
+    }
+
+    /**
+     * Finds an optimal subset of the items in [lb...ub) for capacity W and
+     * adds its items to the given list.
+     * @param items Columns of items.
+     * @param lb Index of the first item to consider.
+     * @param ub Index after the last item to consider.
+     * @param W Capacity available for these items.
+     * @param selected List in which to add the selected items.
+     * @param pool Pool on which to fill out the rows, null to fill them out
+     *             on the current thread.
+     * @return Value of the optimal subset.
+     */
+    private static int findOptimalItems(ItemColumns items, int lb, int ub,
+                                        int W, List<Item> selected,
+                                        ForkJoinPool pool)
+    {
+        if(ub - lb == 0)
         {
-            for(int x = 0; x <= W; x++)
+            return 0;
+        }
+        if(ub - lb == 1)
+        {
+            int value = items.getValue(lb);
+            if(items.getWeight(lb) <= W && value > 0)
             {
-                int value = items.get(i - 1).getValue();
-                int weight = items.get(i - 1).getWeight();
-                int firstCase = a[x].get(0);
-                int secondCase = (x >= weight)? a[x - weight].get(0) + value :
-                        firstCase;
-                a[x].set(1, Math.max(firstCase, secondCase));
+                selected.add(items.getItem(lb));
+                return value;
             }
-            // Updates 2-D array a for better memory usage
-            for(int x = 0; x <= W; x++)
+            return 0;
+        }
+
+        // Finds how to best split the capacity between both halves
+        int mid = (lb + ub) >>> 1;
+        int [] firstHalf = Knapsack.fillRow(items, lb, mid, W, pool);
+        int [] secondHalf = Knapsack.fillRow(items, mid, ub, W, pool);
+        int bestX = 0;
+        int bestValue = -1;
+        for(int x = 0; x <= W; x++)
+        {
+            int value = firstHalf[x] + secondHalf[W - x];
+            if(value > bestValue)
             {
-                int aux = a[x].get(1);
-                a[x].set(0, aux);
-                a[x].set(1, 0);
+                bestValue = value;
+                bestX = x;
             }
-            // Message in standard output for logging purposes
-            if(i % 10 == 0)
+        }
+
+        // Solves each half with its share of the capacity
+        Knapsack.findOptimalItems(items, lb, mid, bestX, selected, pool);
+        Knapsack.findOptimalItems(items, mid, ub, W - bestX, selected, pool);
+        return bestValue;
+    }
+
+    /**
+     * Fills out the last row of the dynamic programming table for the items
+     * in [lb...ub), keeping only one row in memory. Position x of the row is
+     * the best value achievable with those items and capacity x.
+     * @param items Columns of items.
+     * @param lb Index of the first item to consider.
+     * @param ub Index after the last item to consider.
+     * @param W Knapsack size.
+     * @param pool Pool on which to fill out the row, null to fill it out on
+     *             the current thread.
+     * @return Array of W + 1 values with the last row of the table.
+     */
+    private static int [] fillRow(ItemColumns items, int lb, int ub, int W,
+                                  ForkJoinPool pool)
+    {
+        int [] values = items.getValues();
+        int [] weights = items.getWeights();
+
+        // Fills out rows in slices on the pool, if worth it, reading each
+        // item's row from the previous one and then swapping them
+        if(pool != null && W >= Knapsack.PARALLEL_CHUNK)
+        {
+            int [] previous = new int[W + 1];
+            int [] next = new int[W + 1];
+            for(int i = lb; i < ub; i++)
             {
-                System.out.println("-- [" + i + " items filled out so far.]");
+                pool.invoke(new RowSlice(previous, next, 0, W + 1,
+                        values[i], weights[i]));
+                int [] aux = previous;
+                previous = next;
+                next = aux;
             }
+            return previous;
         }
-        System.out.println("... table filled out.");
 
-        // Returns the value of the optimal solution
-        return a[W].get(0);
+        // Otherwise, updates a single row in place from the right
+        int [] a = new int[W + 1];
+        for(int i = lb; i < ub; i++)
+        {
+            int value = values[i];
+            int weight = weights[i];
+            for(int x = W; x >= weight; x--)
+            {
+                int secondCase = a[x - weight] + value;
+                if(secondCase > a[x])
+                {
+                    a[x] = secondCase;
+                }
+            }
+        }
+        return a;
     }
 
     /**
-     * Solves the knapsack problem using a greedy heuristic approach.
-     * @param items Array of items.
+     * Solves the knapsack problem using a greedy heuristic approach, and adds
+     * the selected items to the given list.
+     * @param items Columns of items.
      * @param W Knapsack size.
-     * @param n Number of items.
+     * @param selected List in which to add the selected items.
      * @return Value of an acceptable solution (can be the optimal).
      */
-    private static int solveGreedyHeuristic(List<Item> items, int W, int n)
+    private static int solveGreedyHeuristic(ItemColumns items, int W,
+                                            List<Item> selected)
     {
-        // Sorts items in decreasing order of their "bang per buck" ratios
-        QuickBuck.sort(items, n);
+        // Finds the items in decreasing order of their "bang per buck" ratios
+        int [] order = items.ratioOrder();
 
         // Packs items in this order until one doesn't fit, then halt
-        Knapsack.selectedItems = new ArrayList<Item>(n / 2);
         int weightSoFar = 0;
         int value = 0;
-        for(Item item : items)
+        for(int i : order)
         {
-            if(item.getWeight() <= (W - weightSoFar))
+            if(items.getWeight(i) <= (W - weightSoFar))
             {
-                Knapsack.selectedItems.add(item);
-                value += item.getValue();
-                weightSoFar += item.getWeight();
+                selected.add(items.getItem(i));
+                value += items.getValue(i);
+                weightSoFar += items.getWeight(i);
             }
             else    // Element doesn't fit, so halt
             {
@@ -282,74 +815,295 @@ public class Knapsack
     }
 
     /**
-     * Solves the knapsack problem using a dynamic programming heuristic.
-     * @param items List of items.
+     * Solves the knapsack problem using a dynamic programming heuristic (an
+     * FPTAS), and adds the selected items to the given list.
+     * Values are scaled down by m = e * LB / n, LB being a lower bound of the
+     * optimal value, so the optimum in scaled values is at most 2 * n / e and
+     * the selected items are worth at least (1 - e) times the optimum. Only
+     * one row of the table is kept; row x holds the minimum total size needed
+     * to achieve a scaled value >= x. Items are recovered from a bitset of
+     * the decisions taken, one bit per item and x, or, if that bitset would
+     * take more than MAX_DECISION_BITS, by divide and conquer over the items
+     * as in solveForBigData.
+     * @param items Columns of items.
      * @param W Knapsack size.
-     * @param n Number of items.
      * @param e Error margin acceptable for solution, e in [0...1.0)
+     * @param selected List in which to add the selected items.
      * @return Value of an acceptable solution (can be the optimal).
      */
-    private static int solveDPHeuristic(List<Item> items, int W, int n, float e)
+    private static int solveDPHeuristic(ItemColumns items, int W, float e,
+                                        List<Item> selected)
     {
-        // Finds the biggest value
-        int vMax = 0;
-        for(Item item : items)
+        // Finds a lower bound of the optimal value and scales values with it
+        int n = items.size();
+        long lowerBound = Knapsack.findLowerBound(items, W);
+        double m = Math.max(1.0, e * lowerBound / n);
+        long maxScaledValue = (long) (2 * lowerBound / m);
+
+        // Keeps the items that fit and have a positive scaled value
+        int [] candidates = new int[n];
+        int [] weights = new int[n];
+        int [] scaled = new int[n];
+        int k = 0;
+        long sumScaled = 0;
+        for(int i = 0; i < n; i++)
         {
-            if(item.getValue() > vMax)
+            int scaledValue = (int) (items.getValue(i) / m);
+            if(items.getWeight(i) <= W && scaledValue > 0)
             {
-                vMax = item.getValue();
+                candidates[k] = i;
+                weights[k] = items.getWeight(i);
+                scaled[k++] = scaledValue;
+                sumScaled += scaledValue;
             }
         }
+        int X = (int) Math.min(sumScaled, maxScaledValue);
 
-        // Initializes 2-D array
-        int [][] a = new int[n][n * vMax];
-        for(int x = 0; x < n * vMax; x++)
+        // Fills out the row, keeping the decisions if they fit in memory
+        int first = selected.size();
+        long decisionBits = (long) k * (X + 1);
+        if(decisionBits <= Knapsack.MAX_DECISION_BITS)
+        {
+            long [] decisions = new long[(int) ((decisionBits + 63) >>> 6)];
+            int [] a = Knapsack.fillMinWeightRow(weights, scaled, 0, k, X, W,
+                    decisions);
+            int x = Knapsack.findLargestValue(a, W);
+            for(int i = k - 1; i >= 0 && x > 0; i--)
+            {
+                long bit = (long) i * (X + 1) + x;
+                if((decisions[(int) (bit >>> 6)] & (1L << bit)) != 0)
+                {
+                    selected.add(items.getItem(candidates[i]));
+                    x = Math.max(x - scaled[i], 0);
+                }
+            }
+        }
+        else
+        {
+            int [] a = Knapsack.fillMinWeightRow(weights, scaled, 0, k, X, W,
+                    null);
+            int x = Knapsack.findLargestValue(a, W);
+            Knapsack.findApproximateItems(items, candidates, weights, scaled,
+                    0, k, x, W, selected);
+        }
+
+        // Returns the actual value of the selected items
+        int value = 0;
+        for(int i = first; i < selected.size(); i++)
         {
-            a[0][x] = Knapsack.MAX_WEIGHT;
+            value += selected.get(i).getValue();
         }
-        a[0][0] = 0;
+        return value;
+    }
 
-        // Walks through the 2-D array solving the corresponding subproblems.
-        // a[i][x] contains the minimum total size needed to achieve value >= x
-        // while using only the first i items
-        for(int i = 1; i < n; i++)
+    /**
+     * Finds a lower bound of the optimal value: the best of the greedy
+     * solution in bang-per-buck order and the most valuable item that fits.
+     * Since the optimum is at most their sum, it is also at least half the
+     * optimum.
+     * @param items Columns of items.
+     * @param W Knapsack size.
+     * @return Lower bound of the optimal value.
+     */
+    private static long findLowerBound(ItemColumns items, int W)
+    {
+        long greedy = 0;
+        long room = W;
+        int maxValue = 0;
+        for(int i : items.ratioOrder())
         {
-            Item item = items.get(i);
-            int value = item.getValue();
-            int weight = item.getWeight();
-            boolean halt = true;
-            for(int x = 0; x < n * vMax; x++)
+            int value = items.getValue(i);
+            int weight = items.getWeight(i);
+            if(weight <= room)
             {
-                int secondCase = weight;
-                secondCase += (value >= x)? a[i - 1][0]: a[i - 1][x - value];
-                if (secondCase > Knapsack.MAX_WEIGHT)
-                {
-                    secondCase = Knapsack.MAX_WEIGHT;
-                }
-                a[i][x] = Math.min(a[i - 1][x], secondCase);
+                greedy += value;
+                room -= weight;
+            }
+            if(weight <= W && value > maxValue)
+            {
+                maxValue = value;
+            }
+        }
+        return Math.max(greedy, maxValue);
+    }
 
-                // Checks whether to halt after this x-loop
-                if((a[i - 1][x] <= W) || (secondCase <= W))
+    /**
+     * Fills out the row of minimum sizes for the candidate items in
+     * [lb...ub), position x being the minimum total size needed to achieve a
+     * scaled value >= x, or W + 1 if it can't be done within W.
+     * @param weights Weights of the candidate items.
+     * @param scaled Scaled values of the candidate items.
+     * @param lb Index of the first candidate to consider.
+     * @param ub Index after the last candidate to consider.
+     * @param X Biggest scaled value to consider.
+     * @param W Knapsack size.
+     * @param decisions Bitset in which to set bit i * (X + 1) + x whenever
+     *                  candidate i improves position x, null if not needed.
+     * @return Array of X + 1 minimum sizes.
+     */
+    private static int [] fillMinWeightRow(int[] weights, int[] scaled,
+                                           int lb, int ub, int X, int W,
+                                           long[] decisions)
+    {
+        int [] a = new int[X + 1];
+        Arrays.fill(a, 1, X + 1, W + 1);
+        for(int i = lb; i < ub; i++)
+        {
+            int weight = weights[i];
+            int value = scaled[i];
+            long offset = (long) i * (X + 1);
+            for(int x = X; x > 0; x--)
+            {
+                int from = (x > value) ? x - value : 0;
+                long secondCase = (long) a[from] + weight;
+                if(secondCase < a[x])
                 {
-                    halt = false;
+                    a[x] = (int) secondCase;
+                    if(decisions != null)
+                    {
+                        long bit = offset + x;
+                        decisions[(int) (bit >>> 6)] |= 1L << bit;
+                    }
                 }
             }
-            // halts if no more loops required (all values are bigger than W)
-            if(halt)
+        }
+        return a;
+    }
+
+    /**
+     * Finds the largest x such that a[x] <= W.
+     * @param a Row of minimum sizes.
+     * @param W Knapsack size.
+     * @return Largest scaled value achievable within W.
+     */
+    private static int findLargestValue(int[] a, int W)
+    {
+        int x = a.length - 1;
+        while(a[x] > W)
+        {
+            x--;
+        }
+        return x;
+    }
+
+    /**
+     * Finds a subset of the candidate items in [lb...ub) of minimum total
+     * size with scaled value >= X, and adds its items to the given list.
+     * Splits the candidates in halves, finds how to best split X between
+     * them from one row of each half, and solves each half with its share.
+     * @param items Columns of items.
+     * @param candidates Index in items of each candidate.
+     * @param weights Weights of the candidates.
+     * @param scaled Scaled values of the candidates.
+     * @param lb Index of the first candidate to consider.
+     * @param ub Index after the last candidate to consider.
+     * @param X Scaled value to achieve.
+     * @param W Knapsack size.
+     * @param selected List in which to add the selected items.
+     */
+    private static void findApproximateItems(ItemColumns items,
+                                             int[] candidates, int[] weights,
+                                             int[] scaled, int lb, int ub,
+                                             int X, int W,
+                                             List<Item> selected)
+    {
+        if(X <= 0 || ub - lb == 0)
+        {
+            return;
+        }
+        if(ub - lb == 1)
+        {
+            selected.add(items.getItem(candidates[lb]));
+            return;
+        }
+        int mid = (lb + ub) >>> 1;
+        int [] firstHalf = Knapsack.fillMinWeightRow(weights, scaled, lb, mid,
+                X, W, null);
+        int [] secondHalf = Knapsack.fillMinWeightRow(weights, scaled, mid, ub,
+                X, W, null);
+        int bestX = 0;
+        long bestWeight = Long.MAX_VALUE;
+        for(int x = 0; x <= X; x++)
+        {
+            long weight = (long) firstHalf[x] + secondHalf[X - x];
+            if(weight < bestWeight)
             {
-                break;
+                bestWeight = weight;
+                bestX = x;
             }
         }
+        Knapsack.findApproximateItems(items, candidates, weights, scaled, lb,
+                mid, bestX, W, selected);
+        Knapsack.findApproximateItems(items, candidates, weights, scaled, mid,
+                ub, X - bestX, W, selected);
+    }
+
+    //-------------------------------------------------------------------------
+    // NESTED CLASSES
+    //-------------------------------------------------------------------------
+
+    /**
+     * Fork-join task that fills out the capacities [lb...ub) of the row of an
+     * item from the row of the previous item, splitting itself in halves
+     * until slices have at most PARALLEL_CHUNK capacities.
+     */
+    private static class RowSlice extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; // Version of the class
+        private final int [] previous;  // Row of the previous item
+        private final int [] next;      // Row of the current item
+        private final int lb;           // First capacity of the slice
+        private final int ub;           // Capacity after the slice
+        private final int value;        // Value of the current item
+        private final int weight;       // Weight of the current item
+
+        /**
+         * Creates a new RowSlice with the given attributes.
+         * @param previous Row of the previous item.
+         * @param next Row of the current item.
+         * @param lb First capacity of the slice.
+         * @param ub Capacity after the slice.
+         * @param value Value of the current item.
+         * @param weight Weight of the current item.
+         */
+        RowSlice(int[] previous, int[] next, int lb, int ub, int value,
+                 int weight)
+        {
+            this.previous = previous;
+            this.next = next;
+            this.lb = lb;
+            this.ub = ub;
+            this.value = value;
+            this.weight = weight;
+        }
 
-        // Finds and returns the largest x such that a[n - 1][x] <= W
-        int largestX = 0;
-        for(int x = 0; (x < n * vMax) && (a[n - 1][x] <= W) ; x++)
+        /**
+         * Fills out the slice, or splits it in halves if it is too big.
+         */
+        @Override
+        protected void compute()
         {
-            if(a[n - 1][x] <= W)
+            if(this.ub - this.lb > Knapsack.PARALLEL_CHUNK)
             {
-                largestX = x;
+                int mid = (this.lb + this.ub) >>> 1;
+                invokeAll(new RowSlice(this.previous, this.next, this.lb, mid,
+                                this.value, this.weight),
+                        new RowSlice(this.previous, this.next, mid, this.ub,
+                                this.value, this.weight));
+                return;
+            }
+            int x = this.lb;
+            for(; x < this.ub && x < this.weight; x++)
+            {
+                this.next[x] = this.previous[x];
+            }
+            for(; x < this.ub; x++)
+            {
+                int firstCase = this.previous[x];
+                int secondCase = this.previous[x - this.weight] + this.value;
+                this.next[x] = (secondCase > firstCase) ? secondCase :
+                        firstCase;
             }
         }
-        return largestX;
     }
 }
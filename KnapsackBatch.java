@@ -0,0 +1,198 @@
+/**
+ * $Id: KnapsackBatch.java, v1.0 19/10/26 06:10 PM oscarfabra Exp $
+ * {@code KnapsackBatch} Solves batches of instances of the knapsack problem
+ * in parallel.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * KnapsackBatch is a class that solves many instances of the knapsack problem
+ * at once, splitting them across a fixed pool of threads that lives as long
+ * as the batch object. Each instance is solved as Knapsack.solve would, but
+ * its selected items go to its own result instead of the Knapsack class list,
+ * and small exact instances fill out their table in an array kept by each
+ * thread and only grown when an instance needs more room, so solving many
+ * small instances allocates almost no tables at all.
+ * @see Knapsack#solve(List, int, int, float)
+ */
+public class KnapsackBatch
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Number of tasks in which each thread's share of a batch is split, so
+    // that threads that finish early can take work from slower ones
+    public static final int TASKS_PER_THREAD = 4;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Number of threads that solve the instances
+    private int threads;
+
+    // Pool of threads that solve the instances
+    private ExecutorService pool;
+
+    // Table of the straightforward dynamic programming of each thread
+    private ThreadLocal<int[]> tables;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new KnapsackBatch that solves instances on the given number
+     * of threads.
+     * @param threads Number of threads, at least 1.
+     */
+    public KnapsackBatch(int threads)
+    {
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.tables = new ThreadLocal<int[]>()
+        {
+            @Override
+            protected int[] initialValue()
+            {
+                return new int[0];
+            }
+        };
+    }
+
+    /**
+     * Creates a new KnapsackBatch that solves instances on as many threads as
+     * available processors.
+     */
+    public KnapsackBatch()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Solves the given instances of the knapsack problem in parallel.
+     * Instance i has the items items.get(i), knapsack size W[i] and error
+     * margin e[i]. The lists of items aren't modified.
+     * @param items List with the list of items of each instance.
+     * @param W Knapsack size of each instance.
+     * @param e Error margin acceptable for each instance, e in [0...1.0)
+     * @return List with the result of each instance, in the same order.
+     */
+    public List<KnapsackResult> solve(final List<List<Item>> items,
+                                      final int[] W, final float[] e)
+    {
+        final int count = items.size();
+        final KnapsackResult [] results = new KnapsackResult[count];
+
+        // Finds the size of the biggest table needed so that each thread
+        // grows its table at most once per batch
+        long maxTable = 0;
+        for(int i = 0; i < count; i++)
+        {
+            long size = Knapsack.tableSize(W[i], items.get(i).size());
+            if(e[i] == 0.0 && size <= Knapsack.THRESHOLD && size > maxTable)
+            {
+                maxTable = size;
+            }
+        }
+        final int tableSize = (int) maxTable;
+
+        // Splits the instances in ranges of consecutive ones
+        int tasks = Math.min(count, this.threads * TASKS_PER_THREAD);
+        List<Future<Void>> solved = new ArrayList<Future<Void>>(tasks);
+        try
+        {
+            for(int t = 0; t < tasks; t++)
+            {
+                final int lb = (int) ((long) t * count / tasks);
+                final int ub = (int) ((long) (t + 1) * count / tasks);
+                solved.add(this.pool.submit(new Callable<Void>()
+                {
+                    public Void call()
+                    {
+                        KnapsackBatch.this.solveRange(items, W, e, lb, ub,
+                                tableSize, results);
+                        return null;
+                    }
+                }));
+            }
+            for(Future<Void> task : solved)
+            {
+                task.get();
+            }
+        }
+        catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving " +
+                    "knapsack instances.", ex);
+        }
+        catch(ExecutionException ex)
+        {
+            throw new IllegalStateException("Failed to solve knapsack " +
+                    "instances.", ex.getCause());
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Stops the threads of the batch. No more instances can be solved after.
+     */
+    public void shutdown()
+    {
+        this.pool.shutdown();
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Solves the instances in [lb...ub) on the current thread, using the
+     * thread's table for the straightforward dynamic programming.
+     * @param items List with the list of items of each instance.
+     * @param W Knapsack size of each instance.
+     * @param e Error margin acceptable for each instance.
+     * @param lb Index of the first instance to solve.
+     * @param ub Index after the last instance to solve.
+     * @param tableSize Size of the biggest table needed by the batch.
+     * @param results Array in which to store the result of each instance.
+     */
+    private void solveRange(List<List<Item>> items, int[] W, float[] e,
+                            int lb, int ub, int tableSize,
+                            KnapsackResult[] results)
+    {
+        int [] table = this.tables.get();
+        if(table.length < tableSize)
+        {
+            table = new int[tableSize];
+            this.tables.set(table);
+        }
+        for(int i = lb; i < ub; i++)
+        {
+            List<Item> instance = items.get(i);
+            int n = instance.size();
+            List<Item> selected = new ArrayList<Item>(n / 2);
+            int value = Knapsack.solve(new ItemColumns(instance, n), W[i],
+                    e[i], selected, table);
+            results[i] = new KnapsackResult(value, selected);
+        }
+    }
+}
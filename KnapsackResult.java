@@ -0,0 +1,63 @@
+/**
+ * $Id: KnapsackResult.java, v1.0 19/10/26 06:05 PM oscarfabra Exp $
+ * {@code KnapsackResult} Represents the solution of an instance of the
+ * knapsack problem.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.List;
+
+/**
+ * KnapsackResult represents the solution of an instance of the knapsack
+ * problem: its value and the items selected to achieve it.
+ * @see KnapsackBatch
+ */
+public class KnapsackResult
+{
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    private int value;                  // Value of the solution
+    private List<Item> selectedItems;   // Items of the solution
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new KnapsackResult object.
+     * @param value Value of the solution.
+     * @param selectedItems Items of the solution.
+     */
+    public KnapsackResult(int value, List<Item> selectedItems)
+    {
+        this.value = value;
+        this.selectedItems = selectedItems;
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Gets the value of the solution.
+     * @return Value of the solution.
+     */
+    public int getValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * Gets the items of the solution.
+     * @return List of the selected items.
+     */
+    public List<Item> getSelectedItems()
+    {
+        return this.selectedItems;
+    }
+}
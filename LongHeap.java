@@ -0,0 +1,172 @@
+/**
+ * $Id: LongHeap.java, v 1.0 19/10/26 15:20 oscarfabra Exp $
+ * {@code LongHeap} Represents a binary min-heap of long keys backed by a
+ * primitive array.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.Arrays;
+
+/**
+ * Class that represents a binary min-heap of long keys backed by a primitive
+ * array, so no key is ever boxed as in a PriorityQueue. An int payload (e.g.
+ * the id of an edge) can travel with a 32-bit priority by packing both in a
+ * single key as (priority << 32) | payload.
+ */
+public class LongHeap
+{
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Keys of the heap, the smallest at index 0
+    private long [] keys;
+
+    // Number of keys in the heap
+    private int size;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new empty LongHeap with the given initial capacity.
+     * @param capacity Initial capacity of the heap.
+     */
+    public LongHeap(int capacity)
+    {
+        this.keys = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Creates a new LongHeap with the first size keys of the given array,
+     * which is used in place as storage; O(size) algorithm.
+     * @param keys Array with the keys.
+     * @param size Number of keys to take from the array.
+     */
+    public LongHeap(long[] keys, int size)
+    {
+        this.keys = (keys.length > 0) ? keys : new long[1];
+        this.size = size;
+        for(int i = size / 2 - 1; i >= 0; i--)
+        {
+            this.siftDown(i);
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Adds the given key to the heap; O(log n) algorithm.
+     * @param key Key to add.
+     */
+    public void add(long key)
+    {
+        if(this.size == this.keys.length)
+        {
+            this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+        }
+        this.keys[this.size] = key;
+        this.siftUp(this.size++);
+    }
+
+    /**
+     * Gets the smallest key of the heap without removing it.
+     * <b>Pre: </b>The heap is not empty.
+     * @return The smallest key.
+     */
+    public long peek()
+    {
+        return this.keys[0];
+    }
+
+    /**
+     * Removes and returns the smallest key of the heap; O(log n) algorithm.
+     * <b>Pre: </b>The heap is not empty.
+     * @return The smallest key.
+     */
+    public long poll()
+    {
+        long min = this.keys[0];
+        this.keys[0] = this.keys[--this.size];
+        this.siftDown(0);
+        return min;
+    }
+
+    /**
+     * Gets the number of keys in the heap.
+     * @return Number of keys in the heap.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Determines whether the heap is empty.
+     * @return true if the heap has no keys, false otherwise.
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Moves the key at index i up until the heap order is restored.
+     * @param i Index of the key to sift up.
+     */
+    private void siftUp(int i)
+    {
+        long key = this.keys[i];
+        while(i > 0)
+        {
+            int parent = (i - 1) >>> 1;
+            if(this.keys[parent] <= key)
+            {
+                break;
+            }
+            this.keys[i] = this.keys[parent];
+            i = parent;
+        }
+        this.keys[i] = key;
+    }
+
+    /**
+     * Moves the key at index i down until the heap order is restored.
+     * @param i Index of the key to sift down.
+     */
+    private void siftDown(int i)
+    {
+        if(i >= this.size)
+        {
+            return;
+        }
+        long key = this.keys[i];
+        int half = this.size >>> 1;
+        while(i < half)
+        {
+            int child = 2 * i + 1;
+            if(child + 1 < this.size
+                    && this.keys[child + 1] < this.keys[child])
+            {
+                child++;
+            }
+            if(key <= this.keys[child])
+            {
+                break;
+            }
+            this.keys[i] = this.keys[child];
+            i = child;
+        }
+        this.keys[i] = key;
+    }
+}
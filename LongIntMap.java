@@ -0,0 +1,165 @@
+/**
+ * $Id: LongIntMap.java, v 1.0 19/10/26 12:05 oscarfabra Exp $
+ * {@code LongIntMap} Represents a hash map from long keys to non-negative int
+ * values backed by primitive arrays.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.Arrays;
+
+/**
+ * Class that represents a hash map from long keys to non-negative int values
+ * using open addressing with linear probing over primitive arrays, so no key
+ * or value is ever boxed. The table doubles its size whenever it gets half
+ * full.
+ */
+public class LongIntMap
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Value returned when a key is not in the map
+    public static final int NOT_FOUND = -1;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Keys of the table
+    private long [] keys;
+
+    // Values of the table, NOT_FOUND for empty slots
+    private int [] values;
+
+    // Number of (key, value) pairs in the map
+    private int size;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new empty LongIntMap able to hold the given number of pairs
+     * without resizing.
+     * @param expectedSize Expected number of pairs.
+     */
+    public LongIntMap(int expectedSize)
+    {
+        int capacity = 4;
+        while(capacity < 2 * expectedSize)
+        {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, NOT_FOUND);
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Gets the value mapped to the given key.
+     * @param key Key to look for.
+     * @return Value mapped to the key, NOT_FOUND if there is none.
+     */
+    public int get(long key)
+    {
+        int mask = this.keys.length - 1;
+        int slot = LongIntMap.hash(key) & mask;
+        while(this.values[slot] != NOT_FOUND)
+        {
+            if(this.keys[slot] == key)
+            {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any previous value.
+     * <b>Pre: </b>value >= 0.
+     * @param key Key to map.
+     * @param value Value to map the key to.
+     * @return Previous value mapped to the key, NOT_FOUND if there was none.
+     */
+    public int put(long key, int value)
+    {
+        int mask = this.keys.length - 1;
+        int slot = LongIntMap.hash(key) & mask;
+        while(this.values[slot] != NOT_FOUND)
+        {
+            if(this.keys[slot] == key)
+            {
+                int previous = this.values[slot];
+                this.values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if(++this.size * 2 > this.keys.length)
+        {
+            this.resize();
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Gets the number of (key, value) pairs in the map.
+     * @return Number of pairs in the map.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Spreads the bits of the given key so that close keys land far apart.
+     * @param key Key to hash.
+     * @return Hash of the key.
+     */
+    private static int hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Doubles the capacity of the table re-inserting every pair.
+     */
+    private void resize()
+    {
+        long [] oldKeys = this.keys;
+        int [] oldValues = this.values;
+        this.keys = new long[oldKeys.length * 2];
+        this.values = new int[oldValues.length * 2];
+        Arrays.fill(this.values, NOT_FOUND);
+        int mask = this.keys.length - 1;
+        for(int i = 0; i < oldKeys.length; i++)
+        {
+            if(oldValues[i] != NOT_FOUND)
+            {
+                int slot = LongIntMap.hash(oldKeys[i]) & mask;
+                while(this.values[slot] != NOT_FOUND)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * $Id: MultiItem.java, v1.0 19/10/26 07:20 PM oscarfabra Exp $
+ * {@code MultiItem} Represents an item for the multi-dimensional knapsack
+ * problem.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * MultiItem represents an item for the multi-dimensional knapsack problem,
+ * which has a weight in each dimension of the knapsack (e.g. CPU, memory and
+ * I/O). Its weight as an Item is its weight in the first dimension, so a
+ * one-dimensional MultiItem behaves as a plain Item.
+ * @see MultiKnapsack
+ */
+public class MultiItem extends Item
+{
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    private int [] weights;     // The weight of the item in each dimension
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new MultiItem object.
+     * <b>Pre: </b>weights has at least one dimension.
+     * @param id Id to assign to the new item.
+     * @param value Value of the item.
+     * @param weights Weight of the item in each dimension.
+     */
+    public MultiItem(int id, int value, int[] weights)
+    {
+        super(id, value, weights[0]);
+        this.weights = weights.clone();
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Gets the number of dimensions of the item.
+     * @return Number of dimensions.
+     */
+    public int getDimensions()
+    {
+        return this.weights.length;
+    }
+
+    /**
+     * Gets the weight of the item in the given dimension.
+     * @param k Index of the dimension, starting from 0.
+     * @return Weight of the item in dimension k.
+     */
+    public int getWeight(int k)
+    {
+        return this.weights[k];
+    }
+}
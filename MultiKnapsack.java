@@ -0,0 +1,516 @@
+/**
+ * $Id: MultiKnapsack.java, v1.0 19/10/26 07:30 PM oscarfabra Exp $
+ * {@code MultiKnapsack} Solves an instance of the multi-dimensional knapsack
+ * problem.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MultiKnapsack is a class that solves the multi-dimensional knapsack
+ * problem: as the knapsack problem, but each item has a weight in each of d
+ * dimensions and the knapsack a capacity W_k in each dimension k, and the
+ * selected items must fit in every dimension at the same time. Small
+ * instances are solved exactly by dynamic programming over every vector of
+ * capacities. Big ones are solved heuristically by Lagrangian relaxation:
+ * for multipliers l_k, packing the items whose value exceeds the sum of
+ * l_k * w_ik gives an upper bound, the multipliers are improved by
+ * subgradient steps, and each set of multipliers is also used to pack the
+ * items greedily in decreasing order of value / sum of l_k * w_ik.
+ * @see MultiItem
+ */
+public class MultiKnapsack
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Largest number of capacity vectors for which to solve exactly
+    public static final int EXACT_MAX_CELLS = 1 << 24;
+
+    // Number of subgradient steps of the heuristic
+    public static final int ITERATIONS = 200;
+
+    // Number of steps without improving the bound after which the subgradient
+    // step size is halved
+    public static final int STALL_ITERATIONS = 5;
+
+    // Number of items that each parallel task evaluates
+    public static final int PARALLEL_CHUNK = 1 << 12;
+
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Items that fit in the knapsack on their own
+    private List<MultiItem> items;
+
+    // Number of items that fit and number of dimensions
+    private int n;
+    private int d;
+
+    // Capacity of the knapsack in each dimension
+    private int [] W;
+
+    // Values of the items, and weights of item i in [i * d...(i + 1) * d)
+    private int [] values;
+    private int [] weights;
+
+    // Best value found and whether each item is in it
+    private int bestValue;
+    private boolean [] bestTaken;
+
+    // Smallest value known not to be beaten by any solution
+    private long upperBound;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new MultiKnapsack for the given instance of the
+     * multi-dimensional knapsack problem with the first n items of the given
+     * list. The given list isn't modified.
+     * <b>Pre: </b>Every item has W.length dimensions.
+     * @param items List of items.
+     * @param W Capacity of the knapsack in each dimension.
+     * @param n Number of items.
+     */
+    public MultiKnapsack(List<MultiItem> items, int[] W, int n)
+    {
+        // Keeps the items that fit on their own
+        this.d = W.length;
+        this.W = W.clone();
+        this.items = new ArrayList<MultiItem>(n);
+        for(int i = 0; i < n; i++)
+        {
+            MultiItem item = items.get(i);
+            boolean fits = true;
+            for(int k = 0; k < this.d && fits; k++)
+            {
+                fits = item.getWeight(k) <= W[k];
+            }
+            if(fits)
+            {
+                this.items.add(item);
+            }
+        }
+        this.n = this.items.size();
+
+        this.values = new int[this.n];
+        this.weights = new int[this.n * this.d];
+        long sumValues = 0;
+        for(int i = 0; i < this.n; i++)
+        {
+            MultiItem item = this.items.get(i);
+            this.values[i] = item.getValue();
+            sumValues += item.getValue();
+            for(int k = 0; k < this.d; k++)
+            {
+                this.weights[i * this.d + k] = item.getWeight(k);
+            }
+        }
+        this.bestTaken = new boolean[this.n];
+        this.bestValue = 0;
+        this.upperBound = sumValues;
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Determines whether the instance is small enough to be solved exactly,
+     * i.e. the product of (W_k + 1) is at most EXACT_MAX_CELLS and the
+     * decisions of every item for every capacity vector fit in
+     * Knapsack.MAX_DECISION_BITS.
+     * @return true if solveExact can be called, false otherwise.
+     */
+    public boolean canSolveExactly()
+    {
+        long cells = 1;
+        for(int k = 0; k < this.d; k++)
+        {
+            cells *= this.W[k] + 1L;
+            if(cells > MultiKnapsack.EXACT_MAX_CELLS)
+            {
+                return false;
+            }
+        }
+        return cells * this.n <= Knapsack.MAX_DECISION_BITS;
+    }
+
+    /**
+     * Solves the instance exactly by dynamic programming. A single row keeps,
+     * for each vector of capacities, the best value achievable with the items
+     * seen so far; capacity vector (c_0, ..., c_d-1) is at position
+     * c_0 + c_1 * (W_0 + 1) + ..., so that removing the weights of an item
+     * always leads to a lower position and the row can be updated in place
+     * from the highest position down. The decisions taken are kept in a
+     * bitset to recover the selected items.
+     * <b>Pre: </b>canSolveExactly().
+     * @return Value of the optimal solution.
+     */
+    public int solveExact()
+    {
+        // Finds the distance between consecutive capacities of each dimension
+        int [] strides = new int[this.d];
+        int cells = 1;
+        for(int k = 0; k < this.d; k++)
+        {
+            strides[k] = cells;
+            cells *= this.W[k] + 1;
+        }
+
+        int [] a = new int[cells];
+        long decisionBits = (long) cells * this.n;
+        long [] decisions = new long[(int) ((decisionBits + 63) >>> 6)];
+        int [] capacity = new int[this.d];
+        for(int i = 0; i < this.n; i++)
+        {
+            int value = this.values[i];
+            int base = i * this.d;
+            int offset = 0;
+            for(int k = 0; k < this.d; k++)
+            {
+                offset += this.weights[base + k] * strides[k];
+            }
+
+            // Walks the capacity vectors from the highest position down
+            System.arraycopy(this.W, 0, capacity, 0, this.d);
+            long row = (long) i * cells;
+            for(int x = cells - 1; x >= 0; x--)
+            {
+                boolean fits = true;
+                for(int k = 0; k < this.d && fits; k++)
+                {
+                    fits = capacity[k] >= this.weights[base + k];
+                }
+                if(fits && a[x - offset] + value > a[x])
+                {
+                    a[x] = a[x - offset] + value;
+                    long bit = row + x;
+                    decisions[(int) (bit >>> 6)] |= 1L << bit;
+                }
+
+                // Moves to the previous capacity vector
+                for(int k = 0; k < this.d && x > 0; k++)
+                {
+                    if(capacity[k] > 0)
+                    {
+                        capacity[k]--;
+                        break;
+                    }
+                    capacity[k] = this.W[k];
+                }
+            }
+        }
+
+        // Trace backwards to get the solution from the decisions
+        Arrays.fill(this.bestTaken, false);
+        int x = cells - 1;
+        for(int i = this.n - 1; i >= 0; i--)
+        {
+            long bit = (long) i * cells + x;
+            if((decisions[(int) (bit >>> 6)] & (1L << bit)) != 0)
+            {
+                this.bestTaken[i] = true;
+                for(int k = 0; k < this.d; k++)
+                {
+                    x -= this.weights[i * this.d + k] * strides[k];
+                }
+            }
+        }
+        this.bestValue = a[cells - 1];
+        this.upperBound = this.bestValue;
+        return this.bestValue;
+    }
+
+    /**
+     * Solves the instance heuristically by Lagrangian relaxation, evaluating
+     * the relaxation of each step in slices of PARALLEL_CHUNK items on the
+     * given fork-join pool. Besides the best solution found, leaves in
+     * getUpperBound() the best bound given by the relaxation.
+     * @param pool Pool on which to evaluate the relaxation.
+     * @return Value of the best solution found.
+     */
+    public int solveHeuristic(ForkJoinPool pool)
+    {
+        // Starts with multipliers that weigh each dimension by the average
+        // value per unit of its weight
+        double [] multipliers = new double[this.d];
+        double sumValues = 0;
+        double [] sumWeights = new double[this.d];
+        for(int i = 0; i < this.n; i++)
+        {
+            sumValues += this.values[i];
+            for(int k = 0; k < this.d; k++)
+            {
+                sumWeights[k] += this.weights[i * this.d + k];
+            }
+        }
+        for(int k = 0; k < this.d; k++)
+        {
+            multipliers[k] = (sumWeights[k] > 0) ?
+                    sumValues / (this.d * sumWeights[k]) : 0;
+        }
+
+        // Improves the multipliers by subgradient steps
+        double stepSize = 2.0;
+        int stall = 0;
+        boolean [] taken = new boolean[this.n];
+        for(int t = 0; t < MultiKnapsack.ITERATIONS
+                && this.upperBound > this.bestValue; t++)
+        {
+            // Evaluates the relaxation: sum of the positive reduced values,
+            // then the weight in each dimension of the items with them
+            double [] relaxation = pool.invoke(new Relaxation(this.values,
+                    this.weights, this.d, multipliers, 0, this.n));
+            double bound = relaxation[this.d];
+            double [] subgradient = new double[this.d];
+            double norm = 0;
+            for(int k = 0; k < this.d; k++)
+            {
+                bound += multipliers[k] * this.W[k];
+                subgradient[k] = this.W[k] - relaxation[k];
+                norm += subgradient[k] * subgradient[k];
+            }
+            boolean improved = bound < this.upperBound;
+            if(improved)
+            {
+                this.upperBound = (long) Math.floor(bound + 1e-9);
+                stall = 0;
+            }
+            else if(++stall == MultiKnapsack.STALL_ITERATIONS)
+            {
+                stepSize /= 2;
+                stall = 0;
+            }
+
+            // Packs the items greedily by the current multipliers, which
+            // sorts the items, so only when they improved the bound and once
+            // every STALL_ITERATIONS steps
+            if(improved || t % MultiKnapsack.STALL_ITERATIONS == 0)
+            {
+                int value = this.packGreedily(multipliers, taken);
+                if(value > this.bestValue)
+                {
+                    this.bestValue = value;
+                    System.arraycopy(taken, 0, this.bestTaken, 0, this.n);
+                }
+            }
+            if(norm == 0)
+            {
+                break;  // The relaxation can't be improved any further
+            }
+
+            // Moves the multipliers against the subgradient
+            double step = stepSize * (bound - this.bestValue) / norm;
+            for(int k = 0; k < this.d; k++)
+            {
+                multipliers[k] = Math.max(0,
+                        multipliers[k] - step * subgradient[k]);
+            }
+        }
+        return this.bestValue;
+    }
+
+    /**
+     * Solves the instance heuristically using the common fork-join pool.
+     * @return Value of the best solution found.
+     * @see #solveHeuristic(ForkJoinPool)
+     */
+    public int solveHeuristic()
+    {
+        return this.solveHeuristic(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Gets the best value found so far.
+     * @return Best value found so far.
+     */
+    public int getBestValue()
+    {
+        return this.bestValue;
+    }
+
+    /**
+     * Gets the items of the best solution found so far.
+     * @return List of the selected items.
+     */
+    public List<MultiItem> getSelectedItems()
+    {
+        List<MultiItem> selected = new ArrayList<MultiItem>();
+        for(int i = 0; i < this.n; i++)
+        {
+            if(this.bestTaken[i])
+            {
+                selected.add(this.items.get(i));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Gets the smallest upper bound of the optimal value found so far.
+     * @return Upper bound of the optimal value.
+     */
+    public int getUpperBound()
+    {
+        return (int) Math.min(Integer.MAX_VALUE, this.upperBound);
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Packs the items in decreasing order of value / sum of l_k * w_ik while
+     * they fit in every dimension. Items are sorted by keys that pack the
+     * float bits of their ratio, which order as the ratios themselves since
+     * these aren't negative, with their index.
+     * @param multipliers Multiplier l_k of each dimension.
+     * @param taken Array in which to mark the packed items.
+     * @return Value of the packed items.
+     */
+    private int packGreedily(double[] multipliers, boolean[] taken)
+    {
+        // Adds a tiny weight per unit of capacity so that dimensions with a
+        // multiplier of 0 still count
+        long [] keys = new long[this.n];
+        for(int i = 0; i < this.n; i++)
+        {
+            double cost = 0;
+            for(int k = 0; k < this.d; k++)
+            {
+                cost += (multipliers[k] + 1e-9 / (this.W[k] + 1.0))
+                        * this.weights[i * this.d + k];
+            }
+            float ratio = (cost > 0) ? (float) (this.values[i] / cost) :
+                    Float.MAX_VALUE;
+            keys[i] = ((long) Float.floatToIntBits(ratio) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        long [] room = new long[this.d];
+        for(int k = 0; k < this.d; k++)
+        {
+            room[k] = this.W[k];
+        }
+        Arrays.fill(taken, false);
+        int value = 0;
+        for(int j = this.n - 1; j >= 0; j--)
+        {
+            int i = (int) keys[j];
+            int base = i * this.d;
+            boolean fits = true;
+            for(int k = 0; k < this.d && fits; k++)
+            {
+                fits = this.weights[base + k] <= room[k];
+            }
+            if(fits)
+            {
+                taken[i] = true;
+                value += this.values[i];
+                for(int k = 0; k < this.d; k++)
+                {
+                    room[k] -= this.weights[base + k];
+                }
+            }
+        }
+        return value;
+    }
+
+    //-------------------------------------------------------------------------
+    // NESTED CLASSES
+    //-------------------------------------------------------------------------
+
+    /**
+     * Fork-join task that evaluates the Lagrangian relaxation for the items
+     * in [lb...ub), splitting itself in halves until slices have at most
+     * PARALLEL_CHUNK items. Its result holds, for each dimension, the weight
+     * of the items with a positive reduced value, and at the end the sum of
+     * those reduced values.
+     */
+    private static class Relaxation extends RecursiveTask<double[]>
+    {
+        private static final long serialVersionUID = 1L; // Version of the class
+        private final int [] values;            // Values of the items
+        private final int [] weights;           // Weights of the items
+        private final int d;                    // Number of dimensions
+        private final double [] multipliers;    // Multipliers
+        private final int lb;                   // First item of the slice
+        private final int ub;                   // Item after the slice
+
+        /**
+         * Creates a new Relaxation with the given attributes.
+         * @param values Values of the items.
+         * @param weights Weights of the items, d per item.
+         * @param d Number of dimensions.
+         * @param multipliers Multiplier of each dimension.
+         * @param lb First item of the slice.
+         * @param ub Item after the slice.
+         */
+        Relaxation(int[] values, int[] weights, int d, double[] multipliers,
+                   int lb, int ub)
+        {
+            this.values = values;
+            this.weights = weights;
+            this.d = d;
+            this.multipliers = multipliers;
+            this.lb = lb;
+            this.ub = ub;
+        }
+
+        /**
+         * Evaluates the slice, or splits it in halves if it is too big.
+         * @return Weight per dimension and sum of the positive reduced values.
+         */
+        @Override
+        protected double[] compute()
+        {
+            if(this.ub - this.lb > MultiKnapsack.PARALLEL_CHUNK)
+            {
+                int mid = (this.lb + this.ub) >>> 1;
+                Relaxation first = new Relaxation(this.values, this.weights,
+                        this.d, this.multipliers, this.lb, mid);
+                first.fork();
+                double [] result = new Relaxation(this.values, this.weights,
+                        this.d, this.multipliers, mid, this.ub).compute();
+                double [] other = first.join();
+                for(int k = 0; k <= this.d; k++)
+                {
+                    result[k] += other[k];
+                }
+                return result;
+            }
+            double [] result = new double[this.d + 1];
+            for(int i = this.lb; i < this.ub; i++)
+            {
+                int base = i * this.d;
+                double reduced = this.values[i];
+                for(int k = 0; k < this.d; k++)
+                {
+                    reduced -= this.multipliers[k] * this.weights[base + k];
+                }
+                if(reduced > 0)
+                {
+                    result[this.d] += reduced;
+                    for(int k = 0; k < this.d; k++)
+                    {
+                        result[k] += this.weights[base + k];
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
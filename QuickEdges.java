@@ -1,6 +1,6 @@
 /**
- * $Id: QuickSort.java, v 1.0 20/05/14 21:57 oscarfabra Exp $
- * {@code QuickSort} Class that sorts the edges of a given graph in increasing
+ * $Id: QuickEdges.java, v 1.0 20/05/14 21:57 oscarfabra Exp $
+ * {@code QuickEdges} Class that sorts the edges of a given graph in increasing
  * order of their respective costs.
  *
  * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
@@ -14,13 +14,6 @@
  */
 public class QuickEdges
 {
-    //-------------------------------------------------------------------------
-    // CLASS VARIABLES
-    //-------------------------------------------------------------------------
-
-    // Array of integers in which to store the edges of the graph
-    private static int [] edges;
-
     //-------------------------------------------------------------------------
     // CONSTRUCTOR
     //-------------------------------------------------------------------------
@@ -34,100 +27,41 @@ public class QuickEdges
 
     /**
      * Sorts the edges of the given graph according to their respective costs
-     * and stores their ids in the given edges array.
+     * and stores their ids in the given edges array. Edges of equal cost keep
+     * their order in the graph; O(m) algorithm.
      * @param graph Graph to examine.
      * @param edges Array of integers on which to store the ids of edges in
      *              increasing order of their costs.
      */
     public static void sortEdges(Graph graph, int[] edges)
     {
-        // Stores the ids of each edge in the edges class array, and their
-        // costs in the costs array
+        // Stores the ids of each edge in the ids array, and their costs in
+        // the costs array
         int m = graph.getM();
+        int [] ids = new int[m];
         int [] costs = new int[m];
-        QuickEdges.edges = new int[m];
         int i = 0;
         for(Integer edgeId : graph.getEdgeKeys())
         {
-            QuickEdges.edges[i] = edgeId;
+            ids[i] = edgeId;
             costs[i++] = graph.getEdge(edgeId).getCost();
         }
 
-        // Sorts the costs array AND the edges class array
-        QuickEdges.sort(costs);
-
-        // Updates the given edges array
+        // Stores the ids in increasing order of their costs
+        int [] order = ArgSort.argsort(costs, false);
         for(i = 0; i < m; i++)
         {
-            edges[i] = QuickEdges.edges[i];
+            edges[i] = ids[order[i]];
         }
     }
 
     /**
-     * Sorts the given array using quicksort pivoting over the first element.
+     * Sorts the given array using introspective dual-pivot quicksort.
      * @param a Array of int numbers.
+     * @see IntroSort
      */
     public static void sort(int [] a)
     {
-        sort(a, 0, a.length - 1);
-    }
-
-    //-------------------------------------------------------------------------
-    // PRIVATE HELPER METHODS
-    //-------------------------------------------------------------------------
-
-    /**
-     * Sorts array a in [lb...ub] using the first element as pivot.
-     * @param a Array of int numbers.
-     * @param lb Lower-bound index.
-     * @param ub Upper-bound index.
-     */
-    private static void sort(int[] a, int lb, int ub)
-    {
-        if(lb >= ub){ return; }
-        int p = partitionFirst(a, lb, ub);
-        sort(a, lb, p - 1);
-        sort(a, p + 1, ub);
-    }
-
-    /**
-     * Partitions the array a in [index...ub] using the first element as pivot.
-     * @param a Array of int numbers.
-     * @param lb Lower-bound index.
-     * @param ub Upper-bound index.
-     * @return Index of the pivot element.
-     */
-    private static int partitionFirst(int[] a, int lb, int ub)
-    {
-        int p = a[lb];
-        int i = lb + 1;
-        for(int j = lb + 1; j <= ub; j++)
-        {
-            if(a[j] < p)
-            {
-                swap(a, j, i);
-                i++;
-            }
-        }
-        swap(a, lb, i -1);
-        return i - 1;
-    }
-
-    /**
-     * Swaps the elements in array a at indices j and i. <br/>
-     * @param a Array of int numbers.
-     * @param j Index of element to swap.
-     * @param i Index of element to swap.
-     */
-    private static void swap(int[] a, int j, int i)
-    {
-        int aux = a[j];
-        a[j] = a[i];
-        a[i] = aux;
-
-        // Swaps the respective edge ids
-        aux = QuickEdges.edges[j];
-        QuickEdges.edges[j] = QuickEdges.edges[i];
-        QuickEdges.edges[i] = aux;
+        IntroSort.sort(a, null, 0, a.length - 1);
     }
 }
@@ -7,6 +7,8 @@
  * @since 20/05/14
  */
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Class that sorts an array of numbers using quicksort.
@@ -24,9 +26,22 @@ public class QuickSort
     {
         FIRST,              // Pivots over the first element
         LAST,               // Pivots over the last element
-        MEDIAN_OF_THREE     // Pivots using the median-of-three rule
+        MEDIAN_OF_THREE,    // Pivots using the median-of-three rule
+        THREE_WAY           // Pivots using Tukey's ninther and splits in
+                            // < pivot, = pivot and > pivot
     }
 
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Size from which three-way partitioning pivots over Tukey's ninther
+    // instead of the median-of-three
+    public static final int NINTHER_THRESHOLD = 40;
+
+    // Size below which the parallel sort sorts subarrays sequentially
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
     //-------------------------------------------------------------------------
     // CONSTRUCTOR
     //-------------------------------------------------------------------------
@@ -40,34 +55,170 @@ public class QuickSort
 
     /**
      * Sorts the given array using quicksort, pivoting over the element at
-     * index pivot. <br/>
+     * index pivot. With THREE_WAY, the elements equal to the pivot are
+     * gathered in the middle and never compared again, so arrays with few
+     * distinct values are sorted in near-linear time. Each partition of a
+     * subarray counts as its length minus 1 comparisons, whatever the pivot.
+     * <br/>
      * @param a Array of int numbers.
-     * @param pivot Pivoting method (FIRST, LAST or MEDIAN_OF_THREE).
+     * @param pivot Pivoting method (FIRST, LAST, MEDIAN_OF_THREE or
+     *              THREE_WAY).
      * @return The number of comparisons used to sort the array.
      */
     public static long sortAndCountComparisons(int[] a, Pivot pivot)
     {
+        if(pivot == Pivot.THREE_WAY)
+        {
+            return sortAndCountThreeWay(a, 0, a.length - 1);
+        }
         return sortAndCount(a, 0, a.length - 1, pivot);
     }
 
     /**
-     * Sorts the given array using quicksort pivoting over the first element.
+     * Sorts the given array using introspective dual-pivot quicksort, in
+     * O(n log n) even for sorted arrays or arrays with many duplicates.
      * @param a Array of int numbers.
+     * @see IntroSort
      */
     public static void sort(int [] a)
     {
-        sort(a, 0, a.length - 1);
+        IntroSort.sort(a, null, 0, a.length - 1);
     }
 
     /**
-     * Sorts the given array only within indices [lb...ub]
+     * Sorts the given array only within indices [lb...ub] using
+     * introspective dual-pivot quicksort.
      * @param a Array of int numbers.
      * @param lb Lower-bound index.
      * @param ub Upper-bound index.
      */
     public static void sortBounded(int [] a, int lb, int ub)
     {
-        sort(a, lb, ub);
+        IntroSort.sort(a, null, lb, ub);
+    }
+
+    /**
+     * Sorts the given array using quicksort as
+     * sortAndCountComparisons(int[], Pivot) does.
+     * @param a Array of long numbers.
+     * @param pivot Pivoting method (FIRST, LAST, MEDIAN_OF_THREE or
+     *              THREE_WAY).
+     * @return The number of comparisons used to sort the array.
+     */
+    public static long sortAndCountComparisons(long[] a, Pivot pivot)
+    {
+        if(pivot == Pivot.THREE_WAY)
+        {
+            return sortAndCountThreeWay(a, 0, a.length - 1);
+        }
+        return sortAndCount(a, 0, a.length - 1, pivot);
+    }
+
+    /**
+     * Sorts the given array using quicksort as
+     * sortAndCountComparisons(int[], Pivot) does, in the order of
+     * Float.compare: -0.0 before 0.0 and NaN after every other number. The
+     * floats are mapped to ints of the same order, sorted, and mapped back.
+     * @param a Array of float numbers.
+     * @param pivot Pivoting method (FIRST, LAST, MEDIAN_OF_THREE or
+     *              THREE_WAY).
+     * @return The number of comparisons used to sort the array.
+     * @see ArgSort#sortableBits(float)
+     */
+    public static long sortAndCountComparisons(float[] a, Pivot pivot)
+    {
+        int [] keys = QuickSort.toSortable(a);
+        long comparisons = QuickSort.sortAndCountComparisons(keys, pivot);
+        QuickSort.fromSortable(keys, a);
+        return comparisons;
+    }
+
+    /**
+     * Sorts the given array using quicksort as
+     * sortAndCountComparisons(int[], Pivot) does, in the order of
+     * Double.compare: -0.0 before 0.0 and NaN after every other number. The
+     * doubles are mapped to longs of the same order, sorted, and mapped back.
+     * @param a Array of double numbers.
+     * @param pivot Pivoting method (FIRST, LAST, MEDIAN_OF_THREE or
+     *              THREE_WAY).
+     * @return The number of comparisons used to sort the array.
+     * @see ArgSort#sortableBits(double)
+     */
+    public static long sortAndCountComparisons(double[] a, Pivot pivot)
+    {
+        long [] keys = QuickSort.toSortable(a);
+        long comparisons = QuickSort.sortAndCountComparisons(keys, pivot);
+        QuickSort.fromSortable(keys, a);
+        return comparisons;
+    }
+
+    /**
+     * Sorts the given array using introspective dual-pivot quicksort, in
+     * O(n log n) even for sorted arrays or arrays with many duplicates.
+     * @param a Array of long numbers.
+     * @see IntroSort
+     */
+    public static void sort(long [] a)
+    {
+        IntroSort.sort(a, null, 0, a.length - 1);
+    }
+
+    /**
+     * Sorts the given array using introspective dual-pivot quicksort, in the
+     * order of Float.compare.
+     * @param a Array of float numbers.
+     * @see #sortAndCountComparisons(float[], Pivot)
+     */
+    public static void sort(float [] a)
+    {
+        int [] keys = QuickSort.toSortable(a);
+        IntroSort.sort(keys, null, 0, keys.length - 1);
+        QuickSort.fromSortable(keys, a);
+    }
+
+    /**
+     * Sorts the given array using introspective dual-pivot quicksort, in the
+     * order of Double.compare.
+     * @param a Array of double numbers.
+     * @see #sortAndCountComparisons(double[], Pivot)
+     */
+    public static void sort(double [] a)
+    {
+        long [] keys = QuickSort.toSortable(a);
+        IntroSort.sort(keys, null, 0, keys.length - 1);
+        QuickSort.fromSortable(keys, a);
+    }
+
+    /**
+     * Sorts the given array on the given fork-join pool. Each subarray of at
+     * least threshold elements is partitioned as the sequential sort does
+     * and its three parts are sorted as parallel tasks; smaller subarrays
+     * are sorted sequentially. The result is the same array the sequential
+     * sort gives, still in O(n log n) since both share the depth limit.
+     * @param a Array of int numbers.
+     * @param pool Pool on which to sort the subarrays.
+     * @param threshold Size below which subarrays are sorted sequentially,
+     *                  at least IntroSort.INSERTION_SORT_THRESHOLD.
+     * @see IntroSort
+     */
+    public static void sortParallel(int [] a, ForkJoinPool pool,
+                                    int threshold)
+    {
+        threshold = Math.max(threshold, IntroSort.INSERTION_SORT_THRESHOLD);
+        pool.invoke(new SortTask(a, 0, a.length - 1,
+                IntroSort.maxDepth(a.length), threshold));
+    }
+
+    /**
+     * Sorts the given array on the common fork-join pool, sorting subarrays
+     * of less than PARALLEL_THRESHOLD elements sequentially.
+     * @param a Array of int numbers.
+     * @see #sortParallel(int[], ForkJoinPool, int)
+     */
+    public static void sortParallel(int [] a)
+    {
+        QuickSort.sortParallel(a, ForkJoinPool.commonPool(),
+                QuickSort.PARALLEL_THRESHOLD);
     }
 
     /**
@@ -111,17 +262,72 @@ public class QuickSort
     }
 
     /**
-     * Sorts array a in [lb...ub] using the first element as pivot.
+     * Sorts the given array from indices lb to ub using quicksort with
+     * three-way partitioning over Tukey's ninther, recursing on the
+     * smaller side and looping on the larger one. <br/>
+     * @param a Array of int numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return The number of comparisons used to sort the array.
+     */
+    private static long sortAndCountThreeWay(int[] a, int lb, int ub)
+    {
+        long comparisons = 0;
+        while(lb < ub)
+        {
+            comparisons += ub - lb;
+            long bounds = partitionThreeWay(a, lb, ub, ninther(a, lb, ub));
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+            if(lt - lb < ub - gt)
+            {
+                comparisons += sortAndCountThreeWay(a, lb, lt - 1);
+                lb = gt + 1;
+            }
+            else
+            {
+                comparisons += sortAndCountThreeWay(a, gt + 1, ub);
+                ub = lt - 1;
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Partitions the array a in [lb...ub] in three using the element at the
+     * given index as pivot (Dutch national flag): a[lb...lt) < pivot,
+     * a[lt...gt] = pivot and a(gt...ub] > pivot. The pivot isn't moved
+     * first, so the smaller elements keep their relative order, and a sorted
+     * subarray stays sorted for the next median-of-three.
      * @param a Array of int numbers.
      * @param lb Lower-bound index.
      * @param ub Upper-bound index.
+     * @param index Index of the pivot element.
+     * @return Bounds lt and gt of the elements equal to the pivot, packed as
+     * (lt << 32) | gt.
      */
-    private static void sort(int[] a, int lb, int ub)
+    private static long partitionThreeWay(int[] a, int lb, int ub, int index)
     {
-        if(lb >= ub){ return; }
-        int p = partitionFirst(a, lb, ub);
-        sort(a, lb, p - 1);
-        sort(a, p + 1, ub);
+        int p = a[index];
+        int lt = lb;
+        int gt = ub;
+        int i = lb;
+        while(i <= gt)
+        {
+            if(a[i] < p)
+            {
+                swap(a, lt++, i++);
+            }
+            else if(a[i] > p)
+            {
+                swap(a, i, gt--);
+            }
+            else
+            {
+                i++;
+            }
+        }
+        return ((long) lt << 32) | gt;
     }
 
     /**
@@ -216,6 +422,47 @@ public class QuickSort
         return ub;
     }
 
+    /**
+     * Finds Tukey's ninther for a in [lb...ub]: the median of the medians of
+     * three groups of three elements spread over the subarray, or the
+     * median-of-three for subarrays of less than NINTHER_THRESHOLD elements.
+     * It keeps pivots close to the median even on the partly ordered
+     * subarrays left by three-way partitioning.
+     * @param a Array of int numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return Index of the ninther for a in [lb...ub].
+     */
+    private static int ninther(int[] a, int lb, int ub)
+    {
+        if(ub - lb + 1 < NINTHER_THRESHOLD)
+        {
+            return medianOfThree(a, lb, ub);
+        }
+        int step = (ub - lb) / 8;
+        int mid = lb + (ub - lb) / 2;
+        return median(a, median(a, lb, lb + step, lb + 2 * step),
+                median(a, mid - step, mid, mid + step),
+                median(a, ub - 2 * step, ub - step, ub));
+    }
+
+    /**
+     * Finds the index of the median of a[i], a[j] and a[k].
+     * @param a Array of int numbers.
+     * @param i Index of an element.
+     * @param j Index of an element.
+     * @param k Index of an element.
+     * @return Index of the median of the three elements.
+     */
+    private static int median(int[] a, int i, int j, int k)
+    {
+        if(a[i] < a[j])
+        {
+            return (a[j] < a[k]) ? j : (a[i] < a[k]) ? k : i;
+        }
+        return (a[i] < a[k]) ? i : (a[j] < a[k]) ? k : j;
+    }
+
     /**
      * Swaps the elements in array a at indices j and i. <br/>
      * @param a Array of int numbers.
@@ -229,6 +476,306 @@ public class QuickSort
         a[i] = aux;
     }
 
+    /**
+     * Sorts the given array from indices lb to ub using quicksort, and
+     * pivoting over the element at index pivot. <br/>
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param pivot Pivoting method (FIRST, LAST or MEDIAN_OF_THREE).
+     * @return The number of comparisons used to sort the array.
+     */
+    private static long sortAndCount(long[] a, int lb, int ub, Pivot pivot)
+    {
+        if( lb >= ub)
+        {
+            return 0;
+        }
+        int p = partition(a, lb, ub, pivot);
+        long l = (p - lb > 0) ? p - lb : 0;
+        l = sortAndCount(a, lb, p - 1, pivot) + l;
+        long r = (ub - p > 0) ? ub - p : 0;
+        r = sortAndCount(a, p + 1, ub, pivot) + r;
+        return l + r;
+    }
+
+    /**
+     * Sorts the given array from indices lb to ub using quicksort with
+     * three-way partitioning over Tukey's ninther, recursing on the
+     * smaller side and looping on the larger one. <br/>
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return The number of comparisons used to sort the array.
+     */
+    private static long sortAndCountThreeWay(long[] a, int lb, int ub)
+    {
+        long comparisons = 0;
+        while(lb < ub)
+        {
+            comparisons += ub - lb;
+            long bounds = partitionThreeWay(a, lb, ub, ninther(a, lb, ub));
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+            if(lt - lb < ub - gt)
+            {
+                comparisons += sortAndCountThreeWay(a, lb, lt - 1);
+                lb = gt + 1;
+            }
+            else
+            {
+                comparisons += sortAndCountThreeWay(a, gt + 1, ub);
+                ub = lt - 1;
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Partitions the array a in [lb...ub] in three using the element at the
+     * given index as pivot (Dutch national flag): a[lb...lt) < pivot,
+     * a[lt...gt] = pivot and a(gt...ub] > pivot. The pivot isn't moved
+     * first, so the smaller elements keep their relative order, and a sorted
+     * subarray stays sorted for the next median-of-three.
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param index Index of the pivot element.
+     * @return Bounds lt and gt of the elements equal to the pivot, packed as
+     * (lt << 32) | gt.
+     */
+    private static long partitionThreeWay(long[] a, int lb, int ub, int index)
+    {
+        long p = a[index];
+        int lt = lb;
+        int gt = ub;
+        int i = lb;
+        while(i <= gt)
+        {
+            if(a[i] < p)
+            {
+                swap(a, lt++, i++);
+            }
+            else if(a[i] > p)
+            {
+                swap(a, i, gt--);
+            }
+            else
+            {
+                i++;
+            }
+        }
+        return ((long) lt << 32) | gt;
+    }
+
+    /**
+     * Partitions the array a in [lb...ub] calling to the corresponding helper
+     * method depending on the specified pivot. <br/>
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param pivot Pivoting method (FIRST, LAST or MEDIAN_OF_THREE).
+     * @return Index of the pivot element.
+     */
+    private static int partition(long[] a, int lb, int ub, Pivot pivot)
+    {
+        // Chooses a pivot and swaps it with the first element of the array
+        choosePivot(a, lb, ub, pivot);
+        // Partitions the array using the first element as pivot
+        return partitionFirst(a, lb, ub);
+    }
+
+
+    /**
+     * Chooses a pivot element based on the given arguments and swaps it with
+     * the lower-bound element. <br/>
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param pivot Pivoting method (FIRST, LAST or MEDIAN_OF_THREE).
+     */
+    private static void choosePivot(long[] a, int lb, int ub, Pivot pivot)
+    {
+        int index = lb;
+        if(pivot != Pivot.FIRST && pivot != Pivot.MEDIAN_OF_THREE)
+        {
+            // if pivot is the last element, swap
+            index = ub;
+        }
+        else if(pivot == Pivot.MEDIAN_OF_THREE)
+        {
+            // if pivot is the median-of-three
+            index = medianOfThree(a, lb, ub);
+        }
+        // swaps if necessary
+        if(index != lb)
+        {
+            swap(a, lb, index);
+        }
+    }
+
+    /**
+     * Partitions the array a in [index...ub] using the first element as pivot.
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return Index of the pivot element.
+     */
+    private static int partitionFirst(long[] a, int lb, int ub)
+    {
+        long p = a[lb];
+        int i = lb + 1;
+        for(int j = lb + 1; j <= ub; j++)
+        {
+            if(a[j] < p)
+            {
+                swap(a, j, i);
+                i++;
+            }
+        }
+        swap(a, lb, i -1);
+        return i - 1;
+    }
+
+    /**
+     * Finds and returns the median-of-three pivot for a in [lb...ub].
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return The median-of-three for a in [lb...ub].
+     */
+    private static int medianOfThree(long[] a, int lb, int ub)
+    {
+        long x = a[lb];
+        long y = a[lb + (ub - lb)/2];
+        long z = a[ub];
+        if((x <= y && y <= z) || (z <= y && y <= x))
+        {
+            return lb + (ub - lb)/2;
+        }
+        else if((y <= x && x <= z) || (z <= x && x <= y))
+        {
+            return lb;
+        }
+        return ub;
+    }
+
+    /**
+     * Finds Tukey's ninther for a in [lb...ub]: the median of the medians of
+     * three groups of three elements spread over the subarray, or the
+     * median-of-three for subarrays of less than NINTHER_THRESHOLD elements.
+     * It keeps pivots close to the median even on the partly ordered
+     * subarrays left by three-way partitioning.
+     * @param a Array of long numbers.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @return Index of the ninther for a in [lb...ub].
+     */
+    private static int ninther(long[] a, int lb, int ub)
+    {
+        if(ub - lb + 1 < NINTHER_THRESHOLD)
+        {
+            return medianOfThree(a, lb, ub);
+        }
+        int step = (ub - lb) / 8;
+        int mid = lb + (ub - lb) / 2;
+        return median(a, median(a, lb, lb + step, lb + 2 * step),
+                median(a, mid - step, mid, mid + step),
+                median(a, ub - 2 * step, ub - step, ub));
+    }
+
+    /**
+     * Finds the index of the median of a[i], a[j] and a[k].
+     * @param a Array of long numbers.
+     * @param i Index of an element.
+     * @param j Index of an element.
+     * @param k Index of an element.
+     * @return Index of the median of the three elements.
+     */
+    private static int median(long[] a, int i, int j, int k)
+    {
+        if(a[i] < a[j])
+        {
+            return (a[j] < a[k]) ? j : (a[i] < a[k]) ? k : i;
+        }
+        return (a[i] < a[k]) ? i : (a[j] < a[k]) ? k : j;
+    }
+
+    /**
+     * Swaps the elements in array a at indices j and i. <br/>
+     * @param a Array of long numbers.
+     * @param j Index of element to swap.
+     * @param i Index of element to swap.
+     */
+    private static void swap(long[] a, int j, int i)
+    {
+        long aux = a[j];
+        a[j] = a[i];
+        a[i] = aux;
+    }
+
+    /**
+     * Maps the given floats to ints of the same order.
+     * @param a Array of float numbers.
+     * @return Array with the int of the same order of each float.
+     */
+    private static int [] toSortable(float[] a)
+    {
+        int [] keys = new int[a.length];
+        for(int i = 0; i < a.length; i++)
+        {
+            keys[i] = ArgSort.sortableBits(a[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * Maps the given ints, as given by toSortable, back to floats. The
+     * mapping flips the same bits both ways.
+     * @param keys Array of int numbers.
+     * @param a Array of float numbers in which to store the floats.
+     */
+    private static void fromSortable(int[] keys, float[] a)
+    {
+        for(int i = 0; i < keys.length; i++)
+        {
+            int key = keys[i];
+            a[i] = Float.intBitsToFloat(key
+                    ^ ((key >> 31) & Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Maps the given doubles to longs of the same order.
+     * @param a Array of double numbers.
+     * @return Array with the long of the same order of each double.
+     */
+    private static long [] toSortable(double[] a)
+    {
+        long [] keys = new long[a.length];
+        for(int i = 0; i < a.length; i++)
+        {
+            keys[i] = ArgSort.sortableBits(a[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * Maps the given longs, as given by toSortable, back to doubles. The
+     * mapping flips the same bits both ways.
+     * @param keys Array of long numbers.
+     * @param a Array of double numbers in which to store the doubles.
+     */
+    private static void fromSortable(long[] keys, double[] a)
+    {
+        for(int i = 0; i < keys.length; i++)
+        {
+            long key = keys[i];
+            a[i] = Double.longBitsToDouble(key
+                    ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+    }
+
     /**
      * Converts the given array of String into an array of int.
      * @param a Array of int numbers.
@@ -243,6 +790,71 @@ public class QuickSort
         }
     }
 
+    //-------------------------------------------------------------------------
+    // NESTED CLASSES
+    //-------------------------------------------------------------------------
+
+    /**
+     * Fork-join task that sorts a subarray, partitioning it in three and
+     * sorting the parts as subtasks while it has at least threshold elements.
+     */
+    private static class SortTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; // Version of the class
+        private final int [] a;         // Array to sort
+        private final int lb;           // Lower-bound index
+        private final int ub;           // Upper-bound index
+        private final int depth;        // Levels of partitioning left
+        private final int threshold;    // Size of sequential subarrays
+
+        /**
+         * Creates a new SortTask with the given attributes.
+         * @param a Array to sort.
+         * @param lb Lower-bound index.
+         * @param ub Upper-bound index.
+         * @param depth Levels of partitioning left before using heapsort.
+         * @param threshold Size below which subarrays are sorted
+         *                  sequentially.
+         */
+        SortTask(int[] a, int lb, int ub, int depth, int threshold)
+        {
+            this.a = a;
+            this.lb = lb;
+            this.ub = ub;
+            this.depth = depth;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Sorts the subarray, or partitions it and sorts its parts in
+         * parallel if it is too big.
+         */
+        @Override
+        protected void compute()
+        {
+            if(this.ub - this.lb + 1 < this.threshold || this.depth == 0)
+            {
+                IntroSort.sort(this.a, null, this.lb, this.ub, this.depth);
+                return;
+            }
+            long bounds = IntroSort.partition(this.a, null, this.lb, this.ub);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+            long range = IntroSort.middle(this.a, null, this.lb, this.ub, lt,
+                    gt);
+            SortTask left = new SortTask(this.a, this.lb, lt - 1,
+                    this.depth - 1, this.threshold);
+            SortTask middle = new SortTask(this.a, (int) (range >>> 32),
+                    (int) range, this.depth - 1, this.threshold);
+            left.fork();
+            middle.fork();
+            new SortTask(this.a, gt + 1, this.ub, this.depth - 1,
+                    this.threshold).compute();
+            middle.join();
+            left.join();
+        }
+    }
+
     //-------------------------------------------------------------------------
     // MAIN
     //-------------------------------------------------------------------------
@@ -289,5 +901,15 @@ public class QuickSort
         QuickSort.show(a);
         System.out.println("Number of comparisons: " + comparisons);
         System.out.println();
+
+        // Stores again the arguments received by the main
+        QuickSort.convertStrings(a, args);
+
+        // Sorts and counts comparisons using three-way partitioning
+        comparisons = QuickSort.sortAndCountComparisons(a, Pivot.THREE_WAY);
+        System.out.println("Sorted array using three-way partitioning: ");
+        QuickSort.show(a);
+        System.out.println("Number of comparisons: " + comparisons);
+        System.out.println();
     }
 }
@@ -0,0 +1,343 @@
+/**
+ * $Id: RadixSort.java, v1.0 19/10/26 09:50 PM oscarfabra Exp $
+ * {@code RadixSort} Class that sorts arrays of int and long numbers using
+ * least significant digit radix sort.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * Class that sorts arrays of int and long numbers, optionally moving an int
+ * payload (e.g. the ids of the elements) along with them, using least
+ * significant digit radix sort: the keys are distributed by counting on
+ * each digit of 8 or 11 bits, from the lowest to the highest. Since every
+ * pass is stable, equal keys keep their order. The counts of every digit are
+ * found in a single pass over the keys, and digits shared by all the keys,
+ * like the high bytes of small costs, are skipped, so the sort takes O(n)
+ * time per digit that actually differs, plus O(n) extra space. Small ranges
+ * are sorted by insertion sort instead, which is stable too.
+ */
+public class RadixSort
+{
+    //-------------------------------------------------------------------------
+    // CONSTANT
+    //-------------------------------------------------------------------------
+
+    // Size of the ranges that are sorted by insertion sort
+    public static final int INSERTION_SORT_THRESHOLD = 64;
+
+    // Size from which digits of 11 bits are used instead of digits of 8 bits
+    public static final int WIDE_DIGIT_THRESHOLD = 1 << 16;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //-------------------------------------------------------------------------
+
+    // This class should not be instantiated
+    private RadixSort(){}
+
+    //-------------------------------------------------------------------------
+    // PUBLIC CLASS METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts the given array in increasing order, applying the same moves to
+     * the given payload.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     */
+    public static void sort(int[] a, int[] payload)
+    {
+        RadixSort.sort(a, payload, 0, a.length - 1);
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload, using digits of 11 bits for ranges of at least
+     * WIDE_DIGIT_THRESHOLD elements and of 8 bits otherwise.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    public static void sort(int[] a, int[] payload, int lb, int ub)
+    {
+        int bits = (ub - lb + 1 >= RadixSort.WIDE_DIGIT_THRESHOLD) ? 11 : 8;
+        RadixSort.sort(a, payload, lb, ub, bits);
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload, using digits of the given number of bits.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param bits Number of bits of each digit, in [1...16].
+     */
+    public static void sort(int[] a, int[] payload, int lb, int ub, int bits)
+    {
+        int n = ub - lb + 1;
+        if(n < RadixSort.INSERTION_SORT_THRESHOLD)
+        {
+            RadixSort.insertionSort(a, payload, lb, ub);
+            return;
+        }
+
+        // Counts the keys with each value of each digit in a single pass,
+        // flipping the sign bit so that negative keys go first
+        int radix = 1 << bits;
+        int mask = radix - 1;
+        int digits = (32 + bits - 1) / bits;
+        int [][] counts = new int[digits][radix];
+        for(int i = lb; i <= ub; i++)
+        {
+            int key = a[i] ^ Integer.MIN_VALUE;
+            for(int d = 0; d < digits; d++)
+            {
+                counts[d][(key >>> (d * bits)) & mask]++;
+            }
+        }
+
+        // Distributes the keys by each digit not shared by all of them,
+        // alternating between a and a buffer
+        int [] from = a;
+        int [] fromPayload = payload;
+        int offset = lb;
+        int [] to = new int[n];
+        int [] toPayload = (payload != null) ? new int[n] : null;
+        int toOffset = 0;
+        for(int d = 0; d < digits; d++)
+        {
+            int shift = d * bits;
+            int [] count = counts[d];
+            if(count[((a[lb] ^ Integer.MIN_VALUE) >>> shift) & mask] == n)
+            {
+                continue;
+            }
+
+            // Turns the counts into the first position of each digit value
+            int position = toOffset;
+            for(int v = 0; v < radix; v++)
+            {
+                int c = count[v];
+                count[v] = position;
+                position += c;
+            }
+            for(int i = offset; i < offset + n; i++)
+            {
+                int j = count[((from[i] ^ Integer.MIN_VALUE) >>> shift)
+                        & mask]++;
+                to[j] = from[i];
+                if(payload != null)
+                {
+                    toPayload[j] = fromPayload[i];
+                }
+            }
+
+            // Swaps the roles of the arrays
+            int [] aux = from;
+            from = to;
+            to = aux;
+            aux = fromPayload;
+            fromPayload = toPayload;
+            toPayload = aux;
+            int auxOffset = offset;
+            offset = toOffset;
+            toOffset = auxOffset;
+        }
+
+        // Copies the keys back if they ended in the buffer
+        if(from != a)
+        {
+            System.arraycopy(from, 0, a, lb, n);
+            if(payload != null)
+            {
+                System.arraycopy(fromPayload, 0, payload, lb, n);
+            }
+        }
+    }
+
+    /**
+     * Sorts the given array in increasing order, applying the same moves to
+     * the given payload.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     */
+    public static void sort(long[] a, int[] payload)
+    {
+        RadixSort.sort(a, payload, 0, a.length - 1);
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload, using digits of 11 bits for ranges of at least
+     * WIDE_DIGIT_THRESHOLD elements and of 8 bits otherwise.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    public static void sort(long[] a, int[] payload, int lb, int ub)
+    {
+        int bits = (ub - lb + 1 >= RadixSort.WIDE_DIGIT_THRESHOLD) ? 11 : 8;
+        RadixSort.sort(a, payload, lb, ub, bits);
+    }
+
+    /**
+     * Sorts a in [lb...ub] in increasing order, applying the same moves to
+     * the given payload, using digits of the given number of bits.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     * @param bits Number of bits of each digit, in [1...16].
+     */
+    public static void sort(long[] a, int[] payload, int lb, int ub, int bits)
+    {
+        int n = ub - lb + 1;
+        if(n < RadixSort.INSERTION_SORT_THRESHOLD)
+        {
+            RadixSort.insertionSort(a, payload, lb, ub);
+            return;
+        }
+
+        // Counts the keys with each value of each digit in a single pass,
+        // flipping the sign bit so that negative keys go first
+        int radix = 1 << bits;
+        int mask = radix - 1;
+        int digits = (64 + bits - 1) / bits;
+        int [][] counts = new int[digits][radix];
+        for(int i = lb; i <= ub; i++)
+        {
+            long key = a[i] ^ Long.MIN_VALUE;
+            for(int d = 0; d < digits; d++)
+            {
+                counts[d][(int) (key >>> (d * bits)) & mask]++;
+            }
+        }
+
+        // Distributes the keys by each digit not shared by all of them,
+        // alternating between a and a buffer
+        long [] from = a;
+        int [] fromPayload = payload;
+        int offset = lb;
+        long [] to = new long[n];
+        int [] toPayload = (payload != null) ? new int[n] : null;
+        int toOffset = 0;
+        for(int d = 0; d < digits; d++)
+        {
+            int shift = d * bits;
+            int [] count = counts[d];
+            if(count[(int) ((a[lb] ^ Long.MIN_VALUE) >>> shift) & mask] == n)
+            {
+                continue;
+            }
+            int position = toOffset;
+            for(int v = 0; v < radix; v++)
+            {
+                int c = count[v];
+                count[v] = position;
+                position += c;
+            }
+            for(int i = offset; i < offset + n; i++)
+            {
+                int j = count[(int) ((from[i] ^ Long.MIN_VALUE) >>> shift)
+                        & mask]++;
+                to[j] = from[i];
+                if(payload != null)
+                {
+                    toPayload[j] = fromPayload[i];
+                }
+            }
+            long [] aux = from;
+            from = to;
+            to = aux;
+            int [] auxPayload = fromPayload;
+            fromPayload = toPayload;
+            toPayload = auxPayload;
+            int auxOffset = offset;
+            offset = toOffset;
+            toOffset = auxOffset;
+        }
+
+        // Copies the keys back if they ended in the buffer
+        if(from != a)
+        {
+            System.arraycopy(from, 0, a, lb, n);
+            if(payload != null)
+            {
+                System.arraycopy(fromPayload, 0, payload, lb, n);
+            }
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // PRIVATE HELPER METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sorts a in [lb...ub] by insertion sort, keeping equal keys in order.
+     * @param a Array of int numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    private static void insertionSort(int[] a, int[] payload, int lb, int ub)
+    {
+        for(int i = lb + 1; i <= ub; i++)
+        {
+            int key = a[i];
+            int value = (payload != null) ? payload[i] : 0;
+            int j = i - 1;
+            while(j >= lb && a[j] > key)
+            {
+                a[j + 1] = a[j];
+                if(payload != null)
+                {
+                    payload[j + 1] = payload[j];
+                }
+                j--;
+            }
+            a[j + 1] = key;
+            if(payload != null)
+            {
+                payload[j + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Sorts a in [lb...ub] by insertion sort, keeping equal keys in order.
+     * @param a Array of long numbers.
+     * @param payload Array moved along with a, null if none.
+     * @param lb Lower-bound index.
+     * @param ub Upper-bound index.
+     */
+    private static void insertionSort(long[] a, int[] payload, int lb,
+                                      int ub)
+    {
+        for(int i = lb + 1; i <= ub; i++)
+        {
+            long key = a[i];
+            int value = (payload != null) ? payload[i] : 0;
+            int j = i - 1;
+            while(j >= lb && a[j] > key)
+            {
+                a[j + 1] = a[j];
+                if(payload != null)
+                {
+                    payload[j + 1] = payload[j];
+                }
+                j--;
+            }
+            a[j + 1] = key;
+            if(payload != null)
+            {
+                payload[j + 1] = value;
+            }
+        }
+    }
+}
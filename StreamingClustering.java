@@ -0,0 +1,148 @@
+/**
+ * $Id: StreamingClustering.java, v 1.0 19/10/26 14:48 oscarfabra Exp $
+ * {@code StreamingClustering} Class that maintains the clusters of a stream
+ * of bit-coded points whose hamming distance is below a given spacing.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+/**
+ * Class that maintains the clustering of a stream of bit-coded points as
+ * they arrive, where two points are in the same cluster if there is a chain
+ * of points between them each at hamming distance less than the spacing from
+ * the next. After any number of points, getClustersNumber() equals the value
+ * Clustering.findMaxClustering would return for those points, without
+ * needing them all up front. Each new point costs O(C(bits, spacing - 1))
+ * expected time, which is constant for fixed bits and spacing.
+ * @see Clustering#findMaxClusteringByNeighbors(long[], int, int, int)
+ */
+public class StreamingClustering
+{
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Number of bits per point
+    private int bits;
+
+    // XOR masks that lead from a code to the codes within spacing - 1 bits
+    private long [] masks;
+
+    // Clusters of the points received so far
+    private UnionFind clusters;
+
+    // Maps each code received so far with the first point that had it
+    private LongIntMap codePoint;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new StreamingClustering with no points.
+     * <b>Pre: </b>bits <= 64, spacing >= 1.
+     * @param bits Number of bits per point.
+     * @param spacing Minimum spacing between clusters.
+     */
+    public StreamingClustering(int bits, int spacing)
+    {
+        this.bits = bits;
+        this.masks = Hamming.flipMasks(bits, spacing - 1);
+        this.clusters = new UnionFind(0);
+        this.codePoint = new LongIntMap(16);
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Adds a new point given its bits, and merges it with every cluster that
+     * has a point within the spacing.
+     * @param pointBits Array with the bits of the point.
+     * @return Index of the new point, starting from 0.
+     */
+    public int add(int[] pointBits)
+    {
+        long code = 0;
+        for(int j = 0; j < this.bits; j++)
+        {
+            code = (code << 1) | (pointBits[j] & 1);
+        }
+        return this.add(code);
+    }
+
+    /**
+     * Adds a new point given its packed code, and merges it with every
+     * cluster that has a point within the spacing.
+     * @param code Bits of the point packed into a long.
+     * @return Index of the new point, starting from 0.
+     */
+    public int add(long code)
+    {
+        int p = this.clusters.add();
+
+        // If the code was already received, its neighbors are already merged
+        // with the point that had it
+        int q = this.codePoint.get(code);
+        if(q != LongIntMap.NOT_FOUND)
+        {
+            this.clusters.union(p, q);
+            return p;
+        }
+        this.codePoint.put(code, p);
+
+        // Merges the new point with the points of every neighboring code
+        for(long mask : this.masks)
+        {
+            q = this.codePoint.get(code ^ mask);
+            if(q != LongIntMap.NOT_FOUND)
+            {
+                this.clusters.union(p, q);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Gets the current number of clusters.
+     * @return Number of clusters.
+     */
+    public int getClustersNumber()
+    {
+        return this.clusters.getCount();
+    }
+
+    /**
+     * Gets the number of points received so far.
+     * @return Number of points.
+     */
+    public int getN()
+    {
+        return this.clusters.getN();
+    }
+
+    /**
+     * Gets the id of the cluster that currently contains the given point. Ids
+     * may change as more points arrive and clusters merge.
+     * @param p Index of the point.
+     * @return Id of the cluster of the point.
+     */
+    public int getCluster(int p)
+    {
+        return this.clusters.find(p);
+    }
+
+    /**
+     * Determines whether the given points are currently in the same cluster.
+     * @param p Index of the first point.
+     * @param q Index of the second point.
+     * @return true if both points are in the same cluster, false otherwise.
+     */
+    public boolean connected(int p, int q)
+    {
+        return this.clusters.connected(p, q);
+    }
+}
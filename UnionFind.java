@@ -0,0 +1,164 @@
+/**
+ * $Id: UnionFind.java, v 1.0 19/10/26 10:12 oscarfabra Exp $
+ * {@code UnionFind} Represents a disjoint-set (union-find) data structure
+ * over a growing number of elements using primitive int arrays.
+ *
+ * @author <a href="mailto:oscarfabra@gmail.com">Oscar Fabra</a>
+ * @version 1.0
+ * @since 19/10/26
+ */
+
+import java.util.Arrays;
+
+/**
+ * Class that represents a disjoint-set (union-find) data structure over the
+ * elements {0, 1, ..., n - 1}, to which new elements can be added. Uses
+ * union by size and path halving, so any sequence of operations runs in
+ * almost-linear time. <br/>
+ * <b>Note: </b>Vertex and node ids in this repository start at 1, so callers
+ * must subtract 1 from them before using this class.
+ */
+public class UnionFind
+{
+    //-------------------------------------------------------------------------
+    // ATTRIBUTES
+    //-------------------------------------------------------------------------
+
+    // Parent of each element; roots point to themselves
+    private int [] parent;
+
+    // Number of elements of each set, only meaningful for roots
+    private int [] size;
+
+    // Number of elements
+    private int n;
+
+    // Number of disjoint sets in any given moment
+    private int count;
+
+    //-------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Creates a new UnionFind putting each of the n elements in its own set.
+     * @param n Number of elements.
+     */
+    public UnionFind(int n)
+    {
+        this.parent = new int[n];
+        this.size = new int[n];
+        for(int i = 0; i < n; i++)
+        {
+            this.parent[i] = i;
+            this.size[i] = 1;
+        }
+        this.n = n;
+        this.count = n;
+    }
+
+    //-------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Adds a new element n in its own set, doubling the capacity of the
+     * arrays when they are full; O(1) amortized algorithm.
+     * @return The new element.
+     */
+    public int add()
+    {
+        if(this.n == this.parent.length)
+        {
+            int capacity = Math.max(2 * this.n, 16);
+            this.parent = Arrays.copyOf(this.parent, capacity);
+            this.size = Arrays.copyOf(this.size, capacity);
+        }
+        this.parent[this.n] = this.n;
+        this.size[this.n] = 1;
+        this.count++;
+        return this.n++;
+    }
+
+    /**
+     * Finds the representative (root) of the set that contains element p.
+     * @param p Element to look for.
+     * @return Root of the set that contains p.
+     */
+    public int find(int p)
+    {
+        while(this.parent[p] != p)
+        {
+            // Path halving: points p to its grandparent while walking up
+            this.parent[p] = this.parent[this.parent[p]];
+            p = this.parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Merges the sets that contain elements p and q, attaching the smaller
+     * set under the root of the bigger one.
+     * @param p First element.
+     * @param q Second element.
+     * @return true if p and q were in different sets, false otherwise.
+     */
+    public boolean union(int p, int q)
+    {
+        int rootP = this.find(p);
+        int rootQ = this.find(q);
+        if(rootP == rootQ)
+        {
+            return false;
+        }
+        if(this.size[rootP] < this.size[rootQ])
+        {
+            int aux = rootP;
+            rootP = rootQ;
+            rootQ = aux;
+        }
+        this.parent[rootQ] = rootP;
+        this.size[rootP] += this.size[rootQ];
+        this.count--;
+        return true;
+    }
+
+    /**
+     * Determines whether elements p and q belong to the same set.
+     * @param p First element.
+     * @param q Second element.
+     * @return true if p and q are in the same set, false otherwise.
+     */
+    public boolean connected(int p, int q)
+    {
+        return this.find(p) == this.find(q);
+    }
+
+    /**
+     * Gets the number of elements of the set that contains element p.
+     * @param p Element to look for.
+     * @return Size of the set that contains p.
+     */
+    public int getSize(int p)
+    {
+        return this.size[this.find(p)];
+    }
+
+    /**
+     * Gets the number of disjoint sets.
+     * @return Number of disjoint sets.
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Gets the number of elements.
+     * @return Number of elements.
+     */
+    public int getN()
+    {
+        return this.n;
+    }
+}